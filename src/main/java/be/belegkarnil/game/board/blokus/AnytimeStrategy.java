@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This interface is a {@link Strategy} that improves its move as long as it has time. It publishes its best
+ * move so far, as often as it wants: when the deadline expires before it returns, the {@link Game} plays the
+ * last published move instead of skipping the turn (the strategy is then interrupted).
+ *
+ * @author Belegkarnil
+ */
+public interface AnytimeStrategy extends Strategy {
+    public Move play(final List<Piece> pieces, final Board board, Board.Cell type, final List<Piece> opponent, long deadline, Consumer<Move> publisher);
+    
+    @Override
+    public default Move play(final List<Piece> pieces, final Board board, Board.Cell type, final List<Piece> opponent, long deadline){
+        return play(pieces, board, type, opponent, deadline, move -> {});
+    }
+    @Override
+    public default Move play(final List<Piece> pieces, final Board board, Board.Cell type, final List<Piece> opponent){
+        // no deadline, but one that can still be compared with System.nanoTime() without overflow
+        return play(pieces, board, type, opponent, System.nanoTime() + TimeUnit.DAYS.toNanos(1));
+    }
+}
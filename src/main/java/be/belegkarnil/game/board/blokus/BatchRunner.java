@@ -0,0 +1,228 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import be.belegkarnil.game.board.blokus.event.GameAdapter;
+import be.belegkarnil.game.board.blokus.event.RoundEvent;
+
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a main class that plays many games between two {@link Strategy} classes without GUI
+ * (no Swing or AWT class is loaded). Games are played concurrently on a fixed pool of threads, by
+ * default one per available processor, the strategies of each game running on a thread of the game, so that
+ * their CPU time is measured and a runaway strategy is quarantined without stalling the other games (its thread is
+ * abandoned and keeps a core busy until the strategy returns: the runaways are reported).
+ * The colours are swapped every game and the aggregated statistics are printed while games finish.
+ * <p>
+ * Usage: {@code BatchRunner [-games n] [-threads n] [-timeout t] [-clock c] [-rounds n] [-skip n] [-adjudicate] [-report n] FirstStrategy SecondStrategy}
+ * where a strategy is a fully qualified class name or the simple name of a class of the
+ * {@code be.belegkarnil.game.board.blokus.strategy} package, and the timeout of a turn is in seconds
+ * or in milliseconds with the {@code ms} suffix (e.g. {@code 50ms}). A clock replaces the timeout by a
+ * {@link TimeControl} (see {@link TimeControl#parse}). With {@code -adjudicate}, the rounds end as soon as
+ * their winner is known (see {@link Game#setAdjudication}), and the mean scores are those of the adjudication.
+ *
+ * @author Belegkarnil
+ */
+public class BatchRunner {
+    public static final int DEFAULT_GAMES = 100;
+    
+    private final List<Class<? extends Strategy>> strategies;
+    private final int games, threads, numWinningRounds, skipLimit, report;
+    private final long timeout;// in nanoseconds
+    private TimeControl timeControl;
+    private boolean adjudication;
+    private final int[] wins, rounds, runaways;
+    private final long[] scores, cpuTimes;
+    private int played, failed;
+    
+    public BatchRunner(Class<? extends Strategy> first, Class<? extends Strategy> second, int games, int threads, long timeout, int numWinningRounds, int skipLimit, int report){
+        if(games < 1 || threads < 1 || report < 1) throw new IllegalArgumentException("games, threads and report must be positive");
+        this.strategies         = List.of(first, second);
+        this.games              = games;
+        this.threads            = threads;
+        this.timeout            = timeout;
+        this.numWinningRounds   = numWinningRounds;
+        this.skipLimit          = skipLimit;
+        this.report             = report;
+        this.wins               = new int[2];
+        this.rounds             = new int[2];
+        this.scores             = new long[2];
+        this.runaways           = new int[2];
+        this.cpuTimes           = new long[2];
+    }
+    
+    public void setTimeControl(TimeControl timeControl){
+        this.timeControl = timeControl;
+    }
+    public void setAdjudication(boolean adjudication){
+        this.adjudication = adjudication;
+    }
+    
+    /**
+     * This class is the outcome of one game, indexed by the strategy (not by the colour).
+     */
+    public static final class Result {
+        public final int winner;
+        public final int[] rounds, scores;
+        public final long[] cpuTimes;
+        public final boolean[] runaways;
+        
+        private Result(int winner, int[] rounds, int[] scores, long[] cpuTimes, boolean[] runaways){
+            this.winner     = winner;
+            this.rounds     = rounds;
+            this.scores     = scores;
+            this.cpuTimes   = cpuTimes;
+            this.runaways   = runaways;
+        }
+    }
+    
+    /**
+     * Plays a whole game on the calling thread, with new instances of the strategies, and returns its result.
+     * The first class plays first unless swap is true, the timeout is in nanoseconds and the time control may be
+     * null. The scores are the sums of the end of round scores, the adjudicated ones if adjudication is true.
+     */
+    public static Result play(Class<? extends Strategy> first, Class<? extends Strategy> second, boolean swap, long timeout, int numWinningRounds, int skipLimit, TimeControl timeControl, boolean adjudication) throws ReflectiveOperationException {
+        final Player[] players = new Player[]{
+            new Player(first.getSimpleName()+"#0", newStrategy(first)),
+            new Player(second.getSimpleName()+"#1", newStrategy(second))
+        };
+        final int[] scores = new int[2];
+        final Game game = swap ? new Game(new Board(), players[1], players[0], timeout, TimeUnit.NANOSECONDS, numWinningRounds, skipLimit)
+                               : new Game(new Board(), players[0], players[1], timeout, TimeUnit.NANOSECONDS, numWinningRounds, skipLimit);
+        game.setTimeControl(timeControl);
+        game.setAdjudication(adjudication);
+        game.addGameListener(new GameAdapter(){
+            @Override
+            public void onRoundEnded(RoundEvent re) {
+                scores[0] += players[0].countScore();
+                scores[1] += players[1].countScore();
+            }
+        });
+        game.run();
+        return new Result(players[0].countWin() >= numWinningRounds ? 0 : 1, new int[]{ players[0].countWin(), players[1].countWin() }, scores,
+            new long[]{ players[0].countCpuTime(), players[1].countCpuTime() }, new boolean[]{ players[0].isQuarantined(), players[1].isQuarantined() });
+    }
+    private static Strategy newStrategy(Class<? extends Strategy> klass) throws ReflectiveOperationException {
+        try{
+            return klass.getConstructor().newInstance();
+        }catch(InvocationTargetException e){
+            throw new InstantiationException(klass.getName()+": "+e.getCause());
+        }
+    }
+    
+    public void run(PrintStream out) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CompletionService<Result> completion = new ExecutorCompletionService<Result>(executor);
+        final long start = System.nanoTime();
+        try{
+            for(int i=0; i<games; i++){
+                final boolean swap = (i & 1) == 1;
+                completion.submit(() -> play(strategies.get(0), strategies.get(1), swap, timeout, numWinningRounds, skipLimit, timeControl, adjudication));
+            }
+            for(int i=0; i<games; i++){
+                try{
+                    add(completion.take().get());
+                }catch(ExecutionException e){
+                    failed++;
+                    out.println("Game failed: "+e.getCause());
+                }
+                if((played + failed) % report == 0 || played + failed == games){
+                    print(out, System.nanoTime() - start);
+                }
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+    private void add(Result result){
+        played++;
+        wins[result.winner]++;
+        for(int i=0; i<2; i++){
+            rounds[i] += result.rounds[i];
+            scores[i] += result.scores[i];
+            cpuTimes[i] += result.cpuTimes[i];
+            if(result.runaways[i]) runaways[i]++;
+        }
+    }
+    private void print(PrintStream out, long nanos){
+        final double seconds = nanos / 1e9;
+        out.println(String.format(Locale.ROOT, "Games %d/%d (%d failed) in %.1f s, %.1f games/s", played, games, failed, seconds, played / seconds));
+        final int totalRounds = Math.max(1, rounds[0] + rounds[1]);
+        for(int i=0; i<2; i++){
+            out.println(String.format(Locale.ROOT, "  %-24s wins %6d (%5.1f%%)  rounds %6d  mean score %6.2f  cpu %8.1f ms/game  runaways %d",
+                strategies.get(i).getSimpleName(), wins[i], 100.0 * wins[i] / Math.max(1, played), rounds[i], (double) scores[i] / totalRounds,
+                cpuTimes[i] / 1e6 / Math.max(1, played), runaways[i]));
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    public static Class<? extends Strategy> findStrategy(String name) throws ClassNotFoundException {
+        Class<?> klass;
+        try{
+            klass = Class.forName(name);
+        }catch(ClassNotFoundException e){
+            klass = Class.forName(StrategyLoader.STRATEGY_PACKAGE + "." + name);
+        }
+        if(! Strategy.class.isAssignableFrom(klass)) throw new ClassNotFoundException(name+" is not a "+Strategy.class.getSimpleName());
+        return (Class<? extends Strategy>) klass;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int games = DEFAULT_GAMES, threads = Runtime.getRuntime().availableProcessors(), report = -1;
+        long timeout = TimeUnit.SECONDS.toNanos(Game.DEFAULT_TIMEOUT);
+        int numWinningRounds = Game.DEFAULT_NUMBER_OF_WINNING_ROUNDS, skipLimit = Game.DEFAULT_SKIP_LIMIT;
+        TimeControl timeControl = null;
+        boolean adjudication = false;
+        final List<Class<? extends Strategy>> strategies = new ArrayList<Class<? extends Strategy>>();
+        for(int i=0; i<args.length; i++){
+            switch(args[i]){
+                case "-games":      games               = Integer.parseInt(args[++i]); break;
+                case "-threads":    threads             = Integer.parseInt(args[++i]); break;
+                case "-timeout":    timeout             = TimeControl.parseDuration(args[++i]); break;
+                case "-clock":      timeControl         = TimeControl.parse(args[++i]); break;
+                case "-rounds":     numWinningRounds    = Integer.parseInt(args[++i]); break;
+                case "-skip":       skipLimit           = Integer.parseInt(args[++i]); break;
+                case "-adjudicate": adjudication        = true; break;
+                case "-report":     report              = Integer.parseInt(args[++i]); break;
+                default:            strategies.add(findStrategy(args[i]));
+            }
+        }
+        if(strategies.size() != 2){
+            System.err.println("Usage: BatchRunner [-games n] [-threads n] [-timeout t] [-clock c] [-rounds n] [-skip n] [-adjudicate] [-report n] FirstStrategy SecondStrategy");
+            System.exit(1);
+        }
+        if(report < 1) report = Math.max(1, games / 20);
+        final BatchRunner runner = new BatchRunner(strategies.get(0), strategies.get(1), games, threads, timeout, numWinningRounds, skipLimit, report);
+        runner.setTimeControl(timeControl);
+        runner.setAdjudication(adjudication);
+        runner.run(System.out);
+    }
+}
@@ -25,13 +25,10 @@ import java.awt.Window;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Enumeration;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -45,30 +42,10 @@ public class BelegBlokus {
     private static final LinkedList<Class<Strategy>> strategies = new LinkedList<Class<Strategy>>();
     
     private static void loadDefaultStrategies() throws IOException, ClassNotFoundException {
-        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-        final String defaultStrategiesPackage = "be.belegkarnil.game.board.blokus";
-        Enumeration<URL> resources = classLoader.getResources(defaultStrategiesPackage.replace(".","/"));
-        List<File> dirs = new ArrayList<File>();
-        while (resources.hasMoreElements()) {
-            URL resource = resources.nextElement();
-            dirs.add(new File(resource.getFile()));
-        }
-        ArrayList<Class> classes = new ArrayList<Class>();
-        for (File directory : dirs) {
-            classes.addAll(findClasses(directory, defaultStrategiesPackage));
-        }
-        for(Class<?> klass:classes) {
-            if(isStrategy(klass) && hasDefaultConstructor(klass)){
-                strategies.add((Class<Strategy>) klass);
-            }
-        }
+        strategies.addAll(StrategyLoader.findStrategies("be.belegkarnil.game.board.blokus"));
     }
     public static boolean isStrategy(Class klass){
-        Class<?>[] interfaces = klass.getInterfaces();
-        for(Class<?> inter:interfaces) {
-            if (inter.getName().equals(Strategy.class.getName())) return true;
-        }
-        return false;
+        return StrategyLoader.isStrategy(klass);
     }
     public static List<Constructor<Strategy>> constructorOnlyWith(Class<Strategy> klass, List<Class> classes){
         Constructor<Strategy>[] constructors  = (Constructor<Strategy>[]) klass.getConstructors();
@@ -92,36 +69,7 @@ public class BelegBlokus {
         return results;
     }
     public static boolean hasDefaultConstructor(Class klass){
-        try {
-            Constructor<Strategy> constructor = klass.getConstructor();
-            constructor.newInstance();
-        } catch (NoSuchMethodException e) {
-            return false;
-        } catch (InvocationTargetException e) {
-            return false;
-        } catch (InstantiationException e) {
-            return false;
-        } catch (IllegalAccessException e) {
-            return false;
-        }
-        return true;
-    }
-    
-    private static List<Class> findClasses(File directory, String packageName) throws ClassNotFoundException {
-        List<Class> classes = new ArrayList<Class>();
-        if (!directory.exists()) {
-            return classes;
-        }
-        File[] files = directory.listFiles();
-        for (File file : files) {
-            if (file.isDirectory()) {
-                assert !file.getName().contains(".");
-                classes.addAll(findClasses(file, packageName + "." + file.getName()));
-            } else if (file.getName().endsWith(".class")) {
-                classes.add(Class.forName(packageName + '.' + file.getName().substring(0, file.getName().length() - 6)));
-            }
-        }
-        return classes;
+        return StrategyLoader.hasDefaultConstructor(klass);
     }
     
     public static List<Class<Strategy>> listStrategies(){
@@ -19,14 +19,17 @@
  */
 package be.belegkarnil.game.board.blokus;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.function.IntConsumer;
 
 /**
  * This class is a core class of the Game and represents the Board.
+ * A board may be a read-only snapshot (see {@link #snapshot()}), whose mutators throw an
+ * {@link UnsupportedOperationException}.
  *
  * @author Belegkarnil
  */
@@ -43,141 +46,524 @@ public class Board implements Serializable{
         private static final long serialVersionUID = 1234567L;
     }
     public static final int DEFAULT_SIZE = 14;//Blokus Duo
-    private final Cell[][] data;
+    // Bitboards: cell (x,y) is the bit (y*size+x) spread over as many longs as needed (4 for Blokus Duo)
+    private final long[] start;
+    private final long[][] tiles;// one mask per player, index 0 for FIRST_PLAYER and 1 for SECOND_PLAYER
+    private final long[][] anchors;// per player, free cells where a new piece may be hooked (corner or start)
+    private final long[][] forbidden;// per player, occupied cells and cells beside its own pieces
     private final int size;
+    private final boolean readOnly;
+    private transient PlacementTable table;
+    private long hash;
+    // Undo stack of apply(), each frame holds the entry and player then the anchors and forbidden masks before the move
+    private transient long[] history;
+    private transient int depth;
     private Player firstPlayer, secondPlayer;
     public Board(int size){
         this.size           = size;
-        this.data           = new Cell[size][size];
+        this.table          = PlacementTable.forSize(size);
+        this.start          = new long[countWords(size)];
+        this.tiles          = new long[2][countWords(size)];
+        this.anchors        = new long[2][countWords(size)];
+        this.forbidden      = new long[2][countWords(size)];
         this.firstPlayer    = null;
         this.secondPlayer   = null;
+        this.readOnly       = false;
         this.initialize(null,null);
     }
+    /**
+     * Creates a mutable copy of the board (without its undo stack), e.g. to search from a snapshot.
+     */
+    public Board(Board board){
+        this(board, false);
+    }
+    private Board(Board board, boolean readOnly){
+        this.size           = board.size;
+        this.table          = board.table;
+        this.start          = board.start.clone();
+        this.tiles          = new long[][]{ board.tiles[0].clone(), board.tiles[1].clone() };
+        this.anchors        = new long[][]{ board.anchors[0].clone(), board.anchors[1].clone() };
+        this.forbidden      = new long[][]{ board.forbidden[0].clone(), board.forbidden[1].clone() };
+        this.hash           = board.hash;
+        this.firstPlayer    = board.firstPlayer;
+        this.secondPlayer   = board.secondPlayer;
+        this.readOnly       = readOnly;
+    }
+    /**
+     * Returns an immutable copy of the current position, that costs a few long copies. A snapshot can be
+     * kept and shared between threads while this board keeps changing.
+     */
+    public Board snapshot(){
+        if(this.readOnly) return this;
+        return new Board(this, true);
+    }
+    public boolean isReadOnly(){
+        return this.readOnly;
+    }
+    private void checkWritable(){
+        if(this.readOnly) throw new UnsupportedOperationException("This board is a read-only snapshot");
+    }
     public Point[] getStartingPositions(){
         return new Point[]{new Point(4,4), new Point(this.size-4-1,this.size-4-1)};
     }
     public int getSize() {
         return this.size;
     }
+    public PlacementTable getPlacementTable() {
+        return this.table;
+    }
+    /**
+     * Returns the Zobrist hash of the position: the cells of each player and, since each placed piece
+     * leaves the inventory of its {@link Player}, the remaining pieces of both players.
+     * It is maintained incrementally by each placement.
+     */
+    public long hash() {
+        return this.hash;
+    }
+    /**
+     * Returns the Zobrist hash of the position (see {@link #hash()}) combined with the side to move.
+     */
+    public long hash(Cell toMove) {
+        return indexOf(toMove) == 0 ? this.hash : this.hash ^ table.getSideKey();
+    }
     
     public void initialize(Player firstPlayer, Player secondPlayer){
+        checkWritable();
         this.firstPlayer = firstPlayer;
         this.secondPlayer = secondPlayer;
+        this.hash = 0L;
+        this.depth = 0;
         if(this.firstPlayer != null)
             this.firstPlayer.initialize(Piece.values());
         if(this.secondPlayer != null)
             this.secondPlayer.initialize(Piece.values());
-        for(int i=0; i<this.data.length; i++){
-            Arrays.fill(this.data[i],Cell.EMPTY);
+        for(int i=0; i<this.start.length; i++){
+            this.start[i]       = 0L;
+            for(int player=0; player<2; player++){
+                this.tiles[player][i]       = 0L;
+                this.forbidden[player][i]   = 0L;
+            }
         }
         for(Point point:getStartingPositions())
-            this.data[point.getY()][point.getX()] = Cell.START_PLACE;
+            set(this.start, indexOf(point.getX(),point.getY()));
+        for(int player=0; player<2; player++)
+            System.arraycopy(this.start, 0, this.anchors[player], 0, this.start.length);
     }
 
     public Board(){
         this(DEFAULT_SIZE);
     }
+    /**
+     * Copies the position of a board of the same size into this one, without allocation (the undo stack is cleared).
+     */
+    void load(Board board){
+        checkWritable();
+        if(board.size != this.size) throw new IllegalArgumentException("Boards of size "+board.size+" and "+this.size);
+        final int words = this.start.length;
+        System.arraycopy(board.start, 0, this.start, 0, words);
+        for(int player=0; player<2; player++){
+            System.arraycopy(board.tiles[player], 0, this.tiles[player], 0, words);
+            System.arraycopy(board.anchors[player], 0, this.anchors[player], 0, words);
+            System.arraycopy(board.forbidden[player], 0, this.forbidden[player], 0, words);
+        }
+        this.hash           = board.hash;
+        this.depth          = 0;
+        this.firstPlayer    = board.firstPlayer;
+        this.secondPlayer   = board.secondPlayer;
+    }
+    
+    static int countWords(int size){
+        return (size * size + Long.SIZE - 1) / Long.SIZE;
+    }
+    private static boolean test(long[] mask, int index){
+        return (mask[index >>> 6] & (1L << index)) != 0L;
+    }
+    private static void set(long[] mask, int index){
+        mask[index >>> 6] |= 1L << index;
+    }
+    /**
+     * Returns the index (y * size + x) of a cell, the allocation-free counterpart of a {@link Point}
+     * used by {@link #forEachAnchor(Cell, IntConsumer)} and {@link #forEachCell(Cell, IntConsumer)}.
+     */
+    public int indexOf(int x, int y){
+        return y * this.size + x;
+    }
+    public int getX(int index){
+        return index % this.size;
+    }
+    public int getY(int index){
+        return index / this.size;
+    }
+    private static int indexOf(Cell type){
+        switch(type){
+            case FIRST_PLAYER : return 0;
+            case SECOND_PLAYER: return 1;
+            default: throw new IllegalArgumentException("Cell "+type+" does not belong to a player");
+        }
+    }
+    private boolean isOccupied(int index){
+        return test(this.tiles[0], index) || test(this.tiles[1], index);
+    }
 
-    void place(Piece piece, Player player){
-        Cell type = player == firstPlayer ? Cell.FIRST_PLAYER : Cell.SECOND_PLAYER;
-        for(Point point:piece.getPositions()){
-            this.data[point.getY()][point.getX()] = type;
+    void place(Move move, Player player){
+        checkWritable();
+        place(entryOf(move.toInt()), player == firstPlayer ? 0 : 1);
+    }
+    /**
+     * Plays a legal packed {@link Move} for the player on this board only (the {@link Player}s are not
+     * updated) and pushes it on the undo stack, see {@link #undo()}. This is meant for tree search:
+     * the move is not validated, use {@link #canPlace(int, Cell)} or {@link #legalMoves} beforehand.
+     */
+    public void apply(int move, Cell type){
+        checkWritable();
+        final int entry = entryOf(move);
+        if(entry == PlacementTable.NO_ENTRY) throw new IllegalArgumentException("Move "+Move.of(move)+" does not fit in the board");
+        final int player = indexOf(type);
+        final int words = this.start.length;
+        final int frame = 1 + 4 * words;
+        if(this.history == null) this.history = new long[frame * Piece.values().length * 2];
+        if((this.depth + 1) * frame > this.history.length) this.history = Arrays.copyOf(this.history, this.history.length << 1);
+        int top = this.depth * frame;
+        this.history[top++] = (long) entry << 1 | player;
+        for(int p=0; p<2; p++){
+            System.arraycopy(this.anchors[p], 0, this.history, top, words);
+            top += words;
+            System.arraycopy(this.forbidden[p], 0, this.history, top, words);
+            top += words;
+        }
+        this.depth++;
+        place(entry, player);
+    }
+    public void apply(Move move, Cell type){
+        apply(move.toInt(), type);
+    }
+    /**
+     * Plays a legal entry of the {@link PlacementTable} for the player without pushing it on the undo stack, e.g. for
+     * the playouts of a {@link GameSimulator} that never take their moves back. The moves applied before must not
+     * be taken back anymore.
+     */
+    void place(int entry, Cell type){
+        checkWritable();
+        place(entry, indexOf(type));
+    }
+    /**
+     * Takes back the last move played with {@link #apply}, restoring the cells, the anchors, the forbidden
+     * cells and the hash of the board.
+     */
+    public void undo(){
+        checkWritable();
+        if(this.depth == 0) throw new IllegalStateException("No move to undo");
+        final int words = this.start.length;
+        this.depth--;
+        int top = this.depth * (1 + 4 * words);
+        final int entry = (int) (this.history[top] >>> 1);
+        final int player = (int) (this.history[top++] & 1L);
+        final int base = entry * words;
+        for(int w=0; w<words; w++){
+            this.tiles[player][w] &= ~table.occupied[base + w];
+        }
+        this.hash ^= table.keys[entry * 2 + player];
+        for(int p=0; p<2; p++){
+            System.arraycopy(this.history, top, this.anchors[p], 0, words);
+            top += words;
+            System.arraycopy(this.history, top, this.forbidden[p], 0, words);
+            top += words;
+        }
+    }
+    /**
+     * Returns the number of moves that can be taken back with {@link #undo()}.
+     */
+    public int countUndo(){
+        return this.depth;
+    }
+    private void place(int entry, int player){
+        final int opponent = 1 - player;
+        final int base = entry * this.start.length;
+        long occupied;
+        this.hash ^= table.keys[entry * 2 + player];
+        for(int w=0; w<this.start.length; w++){
+            occupied = table.occupied[base + w];
+            this.tiles[player][w]       |= occupied;
+            this.forbidden[player][w]   |= occupied | table.sides[base + w];
+            this.forbidden[opponent][w] |= occupied;
+            // free start cells remain playable whatever the neighbourhood
+            this.anchors[player][w]     = (this.anchors[player][w] | table.corners[base + w]) & ~this.forbidden[player][w]
+                                        | this.start[w] & ~(this.tiles[0][w] | this.tiles[1][w]);
+            this.anchors[opponent][w]   &= ~occupied;
         }
     }
     public boolean isOutOfBounds(Point point) {
-        if(point.getX() < 0 || point.getY() < 0) return true;
-        return point.getX() >= size || point.getY() >= size;
+        return isOutOfBounds(point.getX(), point.getY());
+    }
+    private boolean isOutOfBounds(int x, int y) {
+        if(x < 0 || y < 0) return true;
+        return x >= size || y >= size;
     }
     public boolean isInBounds(Point point) {
         return !isOutOfBounds(point);
     }
+    public boolean isInBounds(int x, int y) {
+        return !isOutOfBounds(x, y);
+    }
     public boolean inCellEmpty(Point point) {
-        return this.data[point.getY()][point.getX()] == Cell.EMPTY;
+        final int index = indexOf(point.getX(), point.getY());
+        return !isOccupied(index) && !test(this.start, index);
     }
-    private boolean isOutOfBounds(Point[] positions){
-        for(Point point:positions){
-            if(point.getX() < 0 || point.getY() < 0) return true;
-            if(point.getX() >= size || point.getY() >= size) return true;
-        }
-        return false;
+    private int entryOf(Piece piece){
+        return table.entry(piece.ordinal(), piece.getShape(), piece.getTranslationX(), piece.getTranslationY());
+    }
+    private int entryOf(int move){
+        return table.entry(Move.pieceOf(move), Move.shapeOf(move), Move.xOf(move), Move.yOf(move));
+    }
+    private boolean isFreeArea(int entry){
+        return !table.occupies(entry, this.tiles[0]) && !table.occupies(entry, this.tiles[1]);
+    }
+    private boolean isStartZone(int entry){
+        return table.occupies(entry, this.start);
     }
-    private boolean isFreeArea(Point[] positions){
-        for(Point point:positions){
-            switch(data[point.getY()][point.getX()]){
-                case FIRST_PLAYER :
-                case SECOND_PLAYER: return false;
-                default:
+    private boolean isAnchored(int entry, int player){
+        return table.occupies(entry, this.anchors[player]);
+    }
+    private boolean isForbiddenArea(int entry, int player) {
+        return table.occupies(entry, this.forbidden[player]);
+    }
+    public boolean canPlace(Piece piece, Player player){
+        return canPlace(piece,player == firstPlayer ? Cell.FIRST_PLAYER : Cell.SECOND_PLAYER);
+    }
+    public boolean canPlace(Piece piece, Cell type){
+        return canPlace(entryOf(piece), type);
+    }
+    public boolean canPlace(Move move, Player player){
+        return canPlace(move,player == firstPlayer ? Cell.FIRST_PLAYER : Cell.SECOND_PLAYER);
+    }
+    public boolean canPlace(Move move, Cell type){
+        return canPlace(move.toInt(), type);
+    }
+    /**
+     * Checks a placement given as a packed {@link Move}.
+     */
+    public boolean canPlace(int move, Cell type){
+        if(move == Move.NO_MOVE) return false;
+        return canPlaceEntry(entryOf(move), type);
+    }
+    /**
+     * Checks a placement given as an entry of the {@link PlacementTable} of this board.
+     */
+    public boolean canPlaceEntry(int entry, Cell type){
+        if(entry == PlacementTable.NO_ENTRY) return false;
+        return isLegal(entry, indexOf(type));
+    }
+    private boolean isLegal(int entry, int player){
+        // the forbidden cells of a player include every occupied cell, and its anchors every free start cell
+        if(!isForbiddenArea(entry,player)) return isAnchored(entry,player);
+        return isStartZone(entry) && isFreeArea(entry);
+    }
+    
+    /**
+     * Calls the action with each legal {@link Move} of the player for the pieces whose ordinal bit is set
+     * in the mask (see {@link Piece#maskOf}). Each placement is generated once, from the lowest anchor
+     * it covers. This method does not allocate.
+     *
+     * @return the number of legal moves
+     */
+    public int legalMoves(Cell type, int pieceMask, IntConsumer action){
+        return generate(indexOf(type), pieceMask, null, action, Integer.MAX_VALUE);
+    }
+    /**
+     * Fills the buffer with the legal {@link Move}s of the player, see {@link #legalMoves(Cell, int, IntConsumer)}.
+     * Moves that do not fit in the buffer are only counted.
+     *
+     * @return the number of legal moves
+     */
+    public int legalMoves(Cell type, int pieceMask, int[] buffer){
+        return generate(indexOf(type), pieceMask, buffer, null, Integer.MAX_VALUE);
+    }
+    public boolean hasLegalMove(Cell type, int pieceMask){
+        return generate(indexOf(type), pieceMask, null, null, 1) > 0;
+    }
+    private int generate(int player, int pieceMask, int[] buffer, IntConsumer action, int limit){
+        final long[] mask = this.anchors[player];
+        final int pieces = Piece.values().length;
+        int count = 0;
+        int anchor, piece, remaining, entry, move, end;
+        long word;
+        for(int w=0; w<mask.length; w++){
+            word = mask[w];
+            while(word != 0L){
+                anchor  = (w << 6) + Long.numberOfTrailingZeros(word);
+                word    &= word - 1;
+                remaining = pieceMask;
+                while(remaining != 0){
+                    piece       = Integer.numberOfTrailingZeros(remaining);
+                    remaining   &= remaining - 1;
+                    end         = table.coveringStart[anchor * pieces + piece + 1];
+                    for(int i=table.coveringStart[anchor * pieces + piece]; i<end; i++){
+                        entry = table.covering[i];
+                        if(!isLegal(entry, player) || !isLowestAnchor(entry, player, anchor)) continue;
+                        move = table.toMove(entry);
+                        if(buffer != null && count < buffer.length) buffer[count] = move;
+                        if(action != null) action.accept(move);
+                        count++;
+                        if(count >= limit) return count;
+                    }
+                }
             }
         }
-        return true;
+        return count;
     }
-    private boolean isStartZone(Point[] positions){
-        for(Point point:positions){
-            if(data[point.getY()][point.getX()] == Cell.START_PLACE) return true;
+    private boolean isLowestAnchor(int entry, int player, int anchor){
+        final long[] mask = this.anchors[player];
+        final int base = entry * mask.length;
+        final int last = anchor >>> 6;
+        for(int w=0; w<last; w++){
+            if((table.occupied[base + w] & mask[w]) != 0L) return false;
         }
-        return false;
+        return (table.occupied[base + last] & mask[last] & ((1L << anchor) - 1L)) == 0L;
     }
-    private boolean inShape(Point[] positions, Point point){
-        for(Point pos:positions)
-            if(pos.equals((point))) return true;
-        return false;
+    
+    /**
+     * Tells whether the cell is an anchor of the player, i.e. a free cell diagonal to one of its pieces
+     * (but beside none of them) or a free start cell. Every legal placement covers at least one anchor.
+     */
+    public boolean isAnchor(int x, int y, Cell type){
+        return test(this.anchors[indexOf(type)], indexOf(x,y));
     }
-    private boolean isCornerAdjacent(Point[] positions, Cell type){
-        // assume all positions are available
-        // compute all corner position and filter to remove out of bounds, remove all position inside the shape (i.e. positions)
-        List<Point> corners = new ArrayList<Point>(positions.length<<2);
-        for(Point point:positions){
-            corners.add(new Point(point.getX()-1, point.getY()-1));
-            corners.add(new Point(point.getX()+1, point.getY()+1));
-            corners.add(new Point(point.getX()+1, point.getY()-1));
-            corners.add(new Point(point.getX()-1, point.getY()+1));
-        }
-        for(int i=corners.size()-1; i >= 0; i--){
-            if(isOutOfBounds(corners.get(i)) || inShape(positions,corners.get(i))) corners.remove(i);
+    /**
+     * Tells whether the player can never cover this cell, because it is occupied or beside one of its pieces.
+     */
+    public boolean isForbidden(int x, int y, Cell type){
+        return test(this.forbidden[indexOf(type)], indexOf(x,y));
+    }
+    public int countAnchors(Cell type){
+        final long[] mask = this.anchors[indexOf(type)];
+        int count = 0;
+        for(long word:mask) count += Long.bitCount(word);
+        return count;
+    }
+    /**
+     * Returns an upper bound of the number of tiles that the player can still place with the pieces of the mask.
+     * Its next pieces can only cover free cells that are not beside its own pieces (or free start cells), which
+     * only become fewer: the bound is the smallest of the number of such cells and of the tiles of the pieces
+     * that have at least one placement on them.
+     */
+    public int countPlaceableTiles(Cell type, int pieceMask){
+        final int player = indexOf(type);
+        final int cells = this.size * this.size;
+        int available = 0;
+        for(int w=0; w<this.start.length; w++){
+            long allowed = ~(this.tiles[0][w] | this.tiles[1][w]) & (~this.forbidden[player][w] | this.start[w]);
+            if((w + 1) << 6 > cells) allowed &= (1L << (cells & 63)) - 1L;
+            available += Long.bitCount(allowed);
         }
-        for(Point point:corners){
-            if(this.data[point.getY()][point.getX()] == type) return true;
+        int tiles = 0, piece, entry;
+        for(int remaining=pieceMask; remaining != 0 && tiles < available; remaining &= remaining - 1){
+            piece = Integer.numberOfTrailingZeros(remaining);
+            search:
+            for(int shape=0; shape<table.countShapes(piece); shape++){
+                for(int y=0; y<this.size; y++){
+                    for(int x=0; x<this.size; x++){
+                        entry = table.entry(piece, shape, x, y);
+                        if(entry == PlacementTable.NO_ENTRY) continue;
+                        if(isFreeArea(entry) && (isStartZone(entry) || !isForbiddenArea(entry, player))){
+                            tiles += table.countTiles(piece);
+                            break search;
+                        }
+                    }
+                }
+            }
         }
-        return false;
+        return Math.min(available, tiles);
     }
-    private boolean isAdjacent(Point[] positions, Cell type) {
-        // compute all side position and filter to remove out of bounds, remove all positions of the shape
-        List<Point> adjacent = new ArrayList<Point>(positions.length<<2);
-        for(Point point:positions){
-            adjacent.add(new Point(point.getX()-1, point.getY()));
-            adjacent.add(new Point(point.getX()+1, point.getY()));
-            adjacent.add(new Point(point.getX(), point.getY()-1));
-            adjacent.add(new Point(point.getX(), point.getY()+1));
+    /**
+     * Returns the index (y * size + x) of the n-th anchor of the player (from 0, in increasing order), or -1.
+     */
+    public int getAnchor(Cell type, int n){
+        final long[] mask = this.anchors[indexOf(type)];
+        for(int w=0; w<mask.length; w++){
+            final int count = Long.bitCount(mask[w]);
+            if(n < count){
+                long word = mask[w];
+                for(; n > 0; n--) word &= word - 1;
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            n -= count;
         }
-        for(int i=adjacent.size()-1; i >= 0; i--){
-            if(isOutOfBounds(adjacent.get(i)) || inShape(positions,adjacent.get(i)) ) adjacent.remove(i);
+        return -1;
+    }
+    /**
+     * Fills the buffer with the index (y * size + x) of each anchor of the player, in increasing order, and returns
+     * the number of anchors. Anchors that do not fit in the buffer are only counted.
+     */
+    public int getAnchors(Cell type, int[] buffer){
+        final long[] mask = this.anchors[indexOf(type)];
+        int count = 0;
+        long word;
+        for(int w=0; w<mask.length; w++){
+            word = mask[w];
+            while(word != 0L){
+                if(count < buffer.length) buffer[count] = (w << 6) + Long.numberOfTrailingZeros(word);
+                count++;
+                word &= word - 1;
+            }
         }
-        for(Point point:adjacent){
-            if(this.data[point.getY()][point.getX()] == type) return true;
+        return count;
+    }
+    /**
+     * Calls the action with the index (y * size + x) of each anchor of the player, in increasing order.
+     */
+    public void forEachAnchor(Cell type, IntConsumer action){
+        forEach(this.anchors[indexOf(type)], action);
+    }
+    public void forEachAnchor(Cell type, PositionConsumer action){
+        forEachAnchor(type, (IntConsumer) index -> action.accept(index % this.size, index / this.size));
+    }
+    /**
+     * Calls the action with the index (y * size + x) of each cell of the given type, in increasing order.
+     * Unlike {@link #copy()}, this does not allocate a grid.
+     */
+    public void forEachCell(Cell type, IntConsumer action){
+        switch(type){
+            case FIRST_PLAYER :
+            case SECOND_PLAYER: forEach(this.tiles[indexOf(type)], action); break;
+            default:
+                for(int index=0; index<this.size * this.size; index++){
+                    if(getCellAt(index / this.size, index % this.size) == type) action.accept(index);
+                }
         }
-        return false;
     }
-    public boolean canPlace(Piece piece, Player player){
-        return canPlace(piece,player == firstPlayer ? Cell.FIRST_PLAYER : Cell.SECOND_PLAYER);
+    public void forEachCell(Cell type, PositionConsumer action){
+        forEachCell(type, (IntConsumer) index -> action.accept(index % this.size, index / this.size));
     }
-    public boolean canPlace(Piece piece, Cell type){
-        final Point[] points = piece.getPositions();
-        if(isOutOfBounds(points)) return false;
-        if(!isFreeArea(points)) return false;
-        if(isStartZone(points)) return true;
-        if(isAdjacent(points,type)) return false;
-        return isCornerAdjacent(points,type);
+    private static void forEach(long[] mask, IntConsumer action){
+        long word;
+        for(int w=0; w<mask.length; w++){
+            word = mask[w];
+            while(word != 0L){
+                action.accept((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
     }
     public Cell getCellAt(int row, int col){
-        return this.data[row][col];
+        final int index = indexOf(col, row);
+        if(test(this.tiles[0], index)) return Cell.FIRST_PLAYER;
+        if(test(this.tiles[1], index)) return Cell.SECOND_PLAYER;
+        if(test(this.start, index)) return Cell.START_PLACE;
+        return Cell.EMPTY;
     }
     public Cell[][] copy(){
         Cell[][] copy = new Cell[this.size][this.size];
         for(int i=0; i<copy.length; i++){
             for(int j=0; j<copy.length; j++){
-                copy[i][j] = this.data[i][j];
+                copy[i][j] = getCellAt(i,j);
             }
         }
         return copy;
     }
+    
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.table = PlacementTable.forSize(this.size);
+    }
 }
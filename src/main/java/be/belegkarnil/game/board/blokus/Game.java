@@ -21,13 +21,23 @@ package be.belegkarnil.game.board.blokus;
 
 import be.belegkarnil.game.board.blokus.event.*;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class is a core class of the Game and represents the Game
  * with all its mechanics.
+ * <p>
+ * Each turn runs the {@link Strategy} on a long-lived executor: by default a single daemon thread owned
+ * by the game, optionally a virtual thread per turn (see {@link #setVirtualThreads}) or an executor shared
+ * between several games (see {@link #setExecutor}). A turn lasts at most the timeout, or with a
+ * {@link TimeControl} (see {@link #setTimeControl}), at most the time left on the clock of the player.
+ * A player without legal move is skipped without calling its strategy, and a round ends as soon as
+ * both players have no legal move (the skips they would make cannot change the result). With the optional
+ * adjudication (see {@link #setAdjudication}), a round also ends as soon as its winner is known.
  *
  * @author Belegkarnil
  */
@@ -35,22 +45,41 @@ public class Game implements Runnable{
     public static final int DEFAULT_SKIP_LIMIT = 3;
     public static final int DEFAULT_TIMEOUT = 60;
     public static final int DEFAULT_NUMBER_OF_WINNING_ROUNDS = 2;
+    private static final long CANCEL_GRACE_MILLIS = 100;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
     private final Player[] players;
-    private final int timeout, numWinningRounds, skipLimit;
+    private final long timeout;// in nanoseconds
+    private final int numWinningRounds, skipLimit;
     private int turn, round;
     private List<GameListener> gameListeners;
     private Board board;
+    private ExecutorService executor;
+    private boolean sharedExecutor, virtualThreads;
+    private TimeControl timeControl;
+    private final long[] clocks;// in nanoseconds, indexed as players
+    private final boolean[] stuck;// no legal move for the rest of the round, indexed as players
+    private final boolean[] mobile;// a legal move until the next placement, indexed as players
+    private boolean adjudication;
     public Game(Board board, Player firstPlayer, Player secondPlayer){
         this(board,firstPlayer,secondPlayer,DEFAULT_TIMEOUT,DEFAULT_NUMBER_OF_WINNING_ROUNDS,DEFAULT_SKIP_LIMIT);
     }
     public Game(Board board, Player firstPlayer, Player secondPlayer, int timeout, int numWinningRounds, int skipLimit){
+        this(board,firstPlayer,secondPlayer,timeout,TimeUnit.SECONDS,numWinningRounds,skipLimit);
+    }
+    public Game(Board board, Player firstPlayer, Player secondPlayer, long timeout, TimeUnit unit, int numWinningRounds, int skipLimit){
+        if(timeout <= 0) throw new IllegalArgumentException("The timeout must be positive");
         this.board          = board;
         this.players        = new Player[]{ firstPlayer, secondPlayer };
         this.gameListeners  = new LinkedList<GameListener>();
         this.round          = 0;
         this.turn           = 0;
+        this.timeControl    = null;
+        this.clocks         = new long[]{ TurnEvent.NO_CLOCK, TurnEvent.NO_CLOCK };
+        this.stuck          = new boolean[2];
+        this.mobile         = new boolean[2];
+        this.adjudication   = false;
         
-        this.timeout            = timeout;
+        this.timeout            = unit.toNanos(timeout);
         this.numWinningRounds   = numWinningRounds;
         this.skipLimit          = skipLimit;
     }
@@ -60,9 +89,41 @@ public class Game implements Runnable{
     public Player getSecondPlayer(){
         return players[1];
     }
+    /**
+     * Returns the timeout of a turn in seconds, rounded up.
+     */
     public int getTimeout(){
+        return (int) Math.min(Integer.MAX_VALUE, (timeout + 999_999_999L) / 1_000_000_000L);
+    }
+    public long getTimeoutNanos(){
         return timeout;
     }
+    /**
+     * Replaces the timeout of each turn by a chess clock for each player and each round, or restores it with null.
+     */
+    public void setTimeControl(TimeControl timeControl){
+        this.timeControl = timeControl;
+    }
+    public TimeControl getTimeControl(){
+        return timeControl;
+    }
+    /**
+     * Returns the time left on the clock of the player in nanoseconds, or {@link TurnEvent#NO_CLOCK}.
+     */
+    public long getClock(Player player){
+        if(timeControl == null) return TurnEvent.NO_CLOCK;
+        return clocks[player == players[0] ? 0 : 1];
+    }
+    /**
+     * Ends the rounds as soon as their winner is known, when one player has no legal move, instead of playing
+     * them to completion. The scores of an adjudicated round are then not the final ones.
+     */
+    public void setAdjudication(boolean adjudication){
+        this.adjudication = adjudication;
+    }
+    public boolean isAdjudication(){
+        return adjudication;
+    }
     public int getSkipLimit(){
         return skipLimit;
     }
@@ -75,98 +136,285 @@ public class Game implements Runnable{
     public int getTurn(){
         return turn;
     }
+    /**
+     * Runs the strategies on the given executor, which is owned by the caller and may be shared between
+     * games (it is never shut down by the game). A null executor restores the executor owned by the game.
+     * As a strategy that overruns its timeout keeps its thread, a shared executor should not be a small
+     * fixed pool.
+     */
+    public void setExecutor(ExecutorService executor){
+        releaseExecutor();
+        this.executor       = executor;
+        this.sharedExecutor = executor != null;
+    }
+    /**
+     * Runs each turn on a new virtual thread instead of the platform thread owned by the game.
+     * This has no effect with an executor given to {@link #setExecutor}.
+     */
+    public void setVirtualThreads(boolean virtualThreads){
+        if(this.virtualThreads == virtualThreads) return;
+        releaseExecutor();
+        this.virtualThreads = virtualThreads;
+    }
+    private ExecutorService getExecutor(){
+        if(executor == null){
+            if(virtualThreads){
+                executor = Executors.newVirtualThreadPerTaskExecutor();
+            }else{
+                executor = Executors.newSingleThreadExecutor(task -> {
+                    final Thread thread = new Thread(task, "BelegBlokus-strategy-"+THREAD_COUNT.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        return executor;
+    }
+    private void releaseExecutor(){
+        if(executor != null && !sharedExecutor){
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+    
     public void addGameListener(GameListener listener){
         if(listener == null)return;
         this.gameListeners.add(listener);
     }
+    /**
+     * Adds a listener that receives the events on its own thread, through a bounded buffer, so that it does
+     * not slow the game down (see {@link AsyncGameListener}). It is removed with {@link #removeGameListener}, or at the
+     * end of the game, once it has received the pending events, so that its consumer thread does not outlive the game.
+     */
+    public void addGameListener(GameListener listener, int capacity, AsyncGameListener.OverflowPolicy policy, boolean virtual){
+        if(listener == null)return;
+        this.gameListeners.add(new AsyncGameListener(listener, capacity, policy, virtual));
+    }
     public void removeGameListener(GameListener listener){
         if(listener == null)return;
-        this.gameListeners.remove(listener);
+        if(this.gameListeners.remove(listener)) return;
+        final Iterator<GameListener> iterator = this.gameListeners.iterator();
+        while(iterator.hasNext()){
+            final GameListener current = iterator.next();
+            if(current instanceof AsyncGameListener && ((AsyncGameListener) current).getListener() == listener){
+                iterator.remove();
+                ((AsyncGameListener) current).close();
+                return;
+            }
+        }
     }
 
     protected void executeGame(){
-        for(Player player:players){
-            removeGameListener(player.getStrategy().register());
-        }
-        //for(Player player:players) player.initialize(Piece.values());
-        fireStarted(new GameEvent(this,players[0],this.players[1]));
-        while(players[0].countWin() < numWinningRounds && players[1].countWin() < numWinningRounds){
-            executeRound();
+        try{
+            for(Player player:players){
+                removeGameListener(player.getStrategy().register());
+            }
+            //for(Player player:players) player.initialize(Piece.values());
+            fireStarted(new GameEvent(this,players[0],this.players[1]));
+            while(players[0].countWin() < numWinningRounds && players[1].countWin() < numWinningRounds){
+                executeRound();
+            }
+            fireEnded(new GameEvent(this,players[0],this.players[1],players[0].countWin() >= numWinningRounds ? players[0] : players[1]));
+        }finally{
+            // even when a listener, a strategy or the board throws, so that the threads do not leak
+            try{
+                unregisterStrategies();
+            }finally{
+                releaseExecutor();
+                closeAsyncListeners();
+            }
         }
-        fireEnded(new GameEvent(this,players[0],this.players[1],players[0].countWin() >= numWinningRounds ? players[0] : players[1]));
+    }
+    // Unregisters every strategy, even after one of them throws
+    private void unregisterStrategies(){
+        RuntimeException failure = null;
         for(Player player:players){
-            removeGameListener(player.getStrategy().unregister());
+            try{
+                removeGameListener(player.getStrategy().unregister());
+            }catch(RuntimeException e){
+                if(failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        if(failure != null) throw failure;
+    }
+    // Closes every asynchronous listener, even after one of them throws the exception of its listener
+    private void closeAsyncListeners(){
+        RuntimeException failure = null;
+        final Iterator<GameListener> iterator = this.gameListeners.iterator();
+        while(iterator.hasNext()){
+            final GameListener current = iterator.next();
+            if(current instanceof AsyncGameListener){
+                iterator.remove();
+                try{
+                    ((AsyncGameListener) current).close();
+                }catch(RuntimeException e){
+                    if(failure == null) failure = e;
+                    else failure.addSuppressed(e);
+                }
+            }
         }
+        if(failure != null) throw failure;
     }
     protected void executeRound(){
         board.initialize(players[0], players[1]);
+        if(timeControl != null) clocks[0] = clocks[1] = timeControl.getBudget();
+        stuck[0] = stuck[1] = false;
+        mobile[0] = mobile[1] = false;
         fireStarted(new RoundEvent(this,players[0],this.players[1],round));
         Player winner = null;
+        boolean adjudicated = false;
         do{
             executeTurn();
-            if(     (players[0].getPieces().isEmpty() || players[0].countSkip() >= skipLimit)
-                &&  (players[1].getPieces().isEmpty() || players[1].countSkip() >= skipLimit)
+            if(     (!players[0].hasPieces() || players[0].countSkip() >= skipLimit)
+                &&  (!players[1].hasPieces() || players[1].countSkip() >= skipLimit)
+                ||  isStuck(0) && isStuck(1)
             ){
                 // Round end, winner is the one with the lowest score
                 if(players[0].countScore() < players[1].countScore()) winner = players[0];
                 else if(players[1].countScore() < players[0].countScore()) winner = players[1];
                 else{ // Tie
-                    winner = players[0].getPieces().isEmpty() || players[1].countSkip()  >= skipLimit ? players[0] : players[1];
+                    // a stuck player would have reached the skip limit
+                    winner = !players[0].hasPieces() || players[1].countSkip()  >= skipLimit || isStuck(1) ? players[0] : players[1];
                 }
+            }else if(adjudication){
+                winner = adjudicate();
+                adjudicated = winner != null;
             }
         }while(winner == null);
         winner.win();
-        fireEnded(new RoundEvent(this,players[0],this.players[1],round,winner));
+        fireEnded(new RoundEvent(this,players[0],this.players[1],round,winner,adjudicated));
         round++;
         Player swap = players[0];
         players[0] = players[1];
         players[1] = swap;
     }
 
+    /**
+     * Returns the winner of the round if one player has no legal move and the result is already known, or null.
+     * The score of the stuck player is final while the other one can only decrease, at best by the tiles it can
+     * still place (see {@link Board#countPlaceableTiles}): the mobile player wins if its score is already lower,
+     * the stuck one if it stays lower (or equal, when ties go to the stuck player whatever happens).
+     */
+    private Player adjudicate(){
+        final int stuckPlayer;
+        if(isStuck(0)) stuckPlayer = 0;
+        else if(isStuck(1)) stuckPlayer = 1;
+        else return null;
+        final Player stuck = players[stuckPlayer], mobile = players[1 - stuckPlayer];
+        if(mobile.countScore() < stuck.countScore()) return mobile;
+        // the first player wins the ties while the second one is stuck
+        if(mobile.countScore() == stuck.countScore() && stuckPlayer == 1) return mobile;
+        final Board.Cell type = stuckPlayer == 0 ? Board.Cell.SECOND_PLAYER : Board.Cell.FIRST_PLAYER;
+        final int best = mobile.countScore() - board.countPlaceableTiles(type, mobile.getPieceMask());
+        if(best > stuck.countScore()) return stuck;
+        // and once it has placed all its pieces
+        if(best == stuck.countScore() && stuckPlayer == 0 && !stuck.hasPieces()) return stuck;
+        return null;
+    }
+    /**
+     * Tells whether the player (0 for the first one of the round) has no legal move. As its pieces and its
+     * anchors only decrease while it cannot play, this lasts until the end of the round. Otherwise the answer
+     * holds until the next placement, so that the legal moves are searched at most once per player and placement.
+     */
+    private boolean isStuck(int player){
+        if(!stuck[player] && !mobile[player]){
+            final Board.Cell type = player == 0 ? Board.Cell.FIRST_PLAYER : Board.Cell.SECOND_PLAYER;
+            stuck[player]   = !board.hasLegalMove(type, players[player].getPieceMask());
+            mobile[player]  = !stuck[player];
+        }
+        return stuck[player];
+    }
     protected void executeTurn(){
         final Player current = players[turn & 1];
-        final Player opponent = players[turn & 1];
-        fireStarted(new TurnEvent(this,current,opponent,round,turn));
+        final Player opponent = players[(turn + 1) & 1];
+        fireStarted(new TurnEvent(this,current,opponent,round,turn,TurnEvent.NO_ACTION,getClock(current),getClock(opponent)));
+        if(isStuck(turn & 1)){
+            // The strategy could only skip
+            current.skip();
+            fireNoAction(new SkipEvent(this,current));
+            fireEnded(new TurnEvent(this,current,opponent,round,turn,TurnEvent.NO_ACTION,getClock(current),getClock(opponent)));
+            turn++;
+            return;
+        }
+        if(current.isQuarantined()){
+            // A runaway strategy still runs, it is not called anymore
+            current.skip();
+            fireTimeout(new SkipEvent(this,current,null,SkipEvent.NO_MEASURE,SkipEvent.NO_MEASURE,true));
+            fireEnded(new TurnEvent(this,current,opponent,round,turn,TurnEvent.NO_ACTION,getClock(current),getClock(opponent)));
+            turn++;
+            return;
+        }
         
-        Piece action = null;
-        boolean readAction = true;
+        Move action = null;
+        boolean readAction = true, timedOut = false, runaway = false;
+        Exception failure = null;
         final Board.Cell type = current == getFirstPlayer() ? Board.Cell.FIRST_PLAYER : Board.Cell.SECOND_PLAYER;
-        final StrategyTask task = new StrategyTask(current.getStrategy(), current.getPieces(), opponent.getPieces(), this.board, type);
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        Future future = executor.submit(task);
+        final Board snapshot = this.board.snapshot();
+        final long start = System.nanoTime();
+        final long deadline, limit;// suggested to the strategy and enforced
+        if(timeControl == null){
+            deadline = limit = start + timeout;
+        }else{
+            limit       = start + timeControl.getDelay() + clocks[turn & 1];
+            deadline    = Math.min(limit, start + timeControl.allot(clocks[turn & 1], current.getPieces().size()));
+        }
+        final StrategyTask task = new StrategyTask(current.getStrategy(), current.getPieces(), opponent.getPieces(), snapshot, type, deadline);
+        Future<?> future = getExecutor().submit(task);
         try {
-            future.get(timeout, TimeUnit.SECONDS);
+            try {
+                future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Only the clock forces the strategy to stop, unless it has a move ready
+                if(deadline == limit || task.getPublished() != null) throw e;
+                future.get(limit - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
         } catch (TimeoutException e) {
             future.cancel(true);
             readAction = false;
-            current.skip();
-            fireTimeout(new SkipEvent(this,current));
+            timedOut = true;
+            // An anytime strategy plays its best move so far
+            action = task.getPublished();
         } catch (Exception e) {
             readAction = false;
-            current.skip();
-            fireException(new SkipEvent(this,current,e));
+            failure = e;
         } finally {
-            executor.shutdownNow();
+            final long elapsed = System.nanoTime() - start;
             if(readAction){
                 action = task.getAction();
+            }else if(task.hasStarted() && !task.awaitTermination(CANCEL_GRACE_MILLIS)){
+                // The strategy ignores the interruption: leave its thread behind rather than queue the next turns on it
+                // (a task cancelled while queued, e.g. behind the tasks of other games in a shared executor, is innocent)
+                runaway = true;
+                // The thread is abandoned: it cannot be stopped and keeps its core until the strategy returns
+                current.quarantine();
+                releaseExecutor();
             }
+            if(timeControl != null) clocks[turn & 1] = timeControl.charge(clocks[turn & 1], elapsed);
         }
-        if(!readAction) {
-            // skip, action is already skipped (timeout / exception)
+        final long cpuTime = task.getCpuTime(), allocatedBytes = task.getAllocatedBytes();
+        current.charge(cpuTime, allocatedBytes);
+        if(failure != null) {
+            current.skip();
+            fireException(new SkipEvent(this,current,failure,cpuTime,allocatedBytes,runaway));
+        }else if(timedOut && action == null){
+            current.skip();
+            fireTimeout(new SkipEvent(this,current,null,cpuTime,allocatedBytes,runaway));
         }else if(action == null){
             current.skip();
-            fireNoAction(new SkipEvent(this,current));
+            fireNoAction(new SkipEvent(this,current,null,cpuTime,allocatedBytes,false));
         }else if(!current.isValid(action)){
             current.skip();
-            fireInvalidPiece(new SkipEvent(this,current));
+            fireInvalidPiece(new SkipEvent(this,current,null,cpuTime,allocatedBytes,false));
         }else if(! board.canPlace(action,current)) {
             current.skip();
-            fireInvalidPosition(new SkipEvent(this,current));
+            fireInvalidPosition(new SkipEvent(this,current,null,cpuTime,allocatedBytes,false));
         }else{
             board.place(action,current);
+            mobile[0] = mobile[1] = false;
             current.plays(action);
         }
-        fireEnded(new TurnEvent(this,current,opponent,round,turn, action));
+        fireEnded(new TurnEvent(this,current,opponent,round,turn,action,getClock(current),getClock(opponent),cpuTime,allocatedBytes));
         turn++;
     }
     protected void fireStarted(final TurnEvent te){
@@ -0,0 +1,292 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class is a core class of the Game and plays rounds as fast as possible, e.g. for the playouts of a
+ * Monte-Carlo search: on a single thread, without events nor timeout, with policies choosing packed {@link Move}s
+ * from piece masks (see {@link Piece#maskOf}) instead of {@link Strategy}s and {@link Player}s. A turn does not
+ * allocate. The rules are the ones of {@link Game}: the turns alternate until each player has no piece left or
+ * reached the skip limit, or until both have no legal move, a missing or illegal move is skipped (a player known
+ * to have no legal move is skipped without calling its policy), the lowest score wins and a tie is broken in favour of the
+ * first player if it placed all its pieces or if the second player reached the skip limit or has no legal move.
+ *
+ * @author Belegkarnil
+ */
+public final class GameSimulator {
+    public static final int ALL_PIECES = (1 << Piece.values().length) - 1;
+    private static final int MONOMINO = 1 << Piece.ONE.ordinal();
+    private static final int SAMPLES = 16;// attempts of the fast random policy before its exhaustive search
+    
+    /**
+     * This interface chooses the move of a player during a simulation. The board is the one of the simulator:
+     * it must be left unchanged (moves may be tried with {@link Board#apply} and {@link Board#undo}).
+     */
+    @FunctionalInterface
+    public interface Policy {
+        /**
+         * Returns a packed {@link Move} of a piece of the mask, or {@link Move#NO_MOVE} to skip.
+         */
+        public int choose(Board board, Board.Cell type, int pieces, int opponentPieces);
+        /**
+         * Tells whether this policy only returns {@link Move#NO_MOVE} when the player has no legal move, so that
+         * the simulator does not search for one again.
+         */
+        public default boolean isExhaustive(){
+            return false;
+        }
+    }
+    
+    private final Board board;
+    private final int skipLimit;
+    private final int[] pieces, skips;
+    private final boolean[] stuck, mobile;// stuck for good, mobile until the next placement
+    private int turns;
+    
+    public GameSimulator(){
+        this(Board.DEFAULT_SIZE, Game.DEFAULT_SKIP_LIMIT);
+    }
+    public GameSimulator(int size, int skipLimit){
+        this.board      = new Board(size);
+        this.skipLimit  = skipLimit;
+        this.pieces     = new int[2];
+        this.skips      = new int[2];
+        this.stuck      = new boolean[2];
+        this.mobile     = new boolean[2];
+        reset();
+    }
+    
+    /**
+     * Starts a round: empty board, all the pieces and no skip.
+     */
+    public void reset(){
+        board.initialize(null, null);
+        pieces[0] = pieces[1] = ALL_PIECES;
+        skips[0] = skips[1] = 0;
+        stuck[0] = stuck[1] = false;
+        mobile[0] = mobile[1] = false;
+        turns = 0;
+    }
+    /**
+     * Continues a round from a position, with the remaining pieces and the skips of each player.
+     */
+    public void reset(Board position, int firstPieces, int secondPieces, int firstSkips, int secondSkips){
+        board.load(position);
+        pieces[0]   = firstPieces;
+        pieces[1]   = secondPieces;
+        skips[0]    = firstSkips;
+        skips[1]    = secondSkips;
+        stuck[0]    = stuck[1] = false;
+        mobile[0]   = mobile[1] = false;
+        turns       = 0;
+    }
+    
+    /**
+     * Plays the round until its end and returns the winner.
+     */
+    public Board.Cell playRound(Policy first, Policy second, Board.Cell toMove){
+        int player = toMove == Board.Cell.FIRST_PLAYER ? 0 : 1;
+        while(!(isDone(0) && isDone(1)) && playTurn(player, player == 0 ? first : second)){
+            player = 1 - player;
+        }
+        return getWinner();
+    }
+    /**
+     * Plays one turn of the player with a given move, e.g. to follow the moves of a search tree before a playout:
+     * a missing or illegal move is skipped.
+     */
+    public void playTurn(Board.Cell type, int move){
+        final int player = type == Board.Cell.FIRST_PLAYER ? 0 : 1;
+        final int entry = entryOf(player, move);
+        if(entry != PlacementTable.NO_ENTRY){
+            place(player, entry);
+        }else{
+            turns++;
+            skips[player]++;
+        }
+    }
+    /**
+     * Tells whether the round has ended.
+     */
+    public boolean isOver(){
+        return isDone(0) && isDone(1) || isStuck(0) && isStuck(1);
+    }
+    // Plays a turn, unless both players have no legal move: a legal move of the policy proves that the player
+    // can move, so that the mobility is only computed when the policy skips
+    private boolean playTurn(int player, Policy policy){
+        if(!stuck[player]){
+            final Board.Cell type = player == 0 ? Board.Cell.FIRST_PLAYER : Board.Cell.SECOND_PLAYER;
+            final int move = policy.choose(board, type, pieces[player], pieces[1 - player]);
+            final int entry = entryOf(player, move);
+            if(entry != PlacementTable.NO_ENTRY){
+                place(player, entry);
+                return true;
+            }
+            if(move == Move.NO_MOVE && policy.isExhaustive()) stuck[player] = true;
+        }
+        if(isStuck(player) && isStuck(1 - player)) return false;
+        turns++;
+        skips[player]++;
+        return true;
+    }
+    // Returns the entry of a legal move of a piece of the player, or NO_ENTRY
+    private int entryOf(int player, int move){
+        if(move == Move.NO_MOVE || Move.pieceOf(move) >= Integer.SIZE || (pieces[player] & 1 << Move.pieceOf(move)) == 0) return PlacementTable.NO_ENTRY;
+        final int entry = board.getPlacementTable().entry(Move.pieceOf(move), Move.shapeOf(move), Move.xOf(move), Move.yOf(move));
+        return board.canPlaceEntry(entry, player == 0 ? Board.Cell.FIRST_PLAYER : Board.Cell.SECOND_PLAYER) ? entry : PlacementTable.NO_ENTRY;
+    }
+    private void place(int player, int entry){
+        turns++;
+        board.place(entry, player == 0 ? Board.Cell.FIRST_PLAYER : Board.Cell.SECOND_PLAYER);
+        pieces[player] &= ~(1 << board.getPlacementTable().toPiece(entry));
+        mobile[0] = mobile[1] = false;
+    }
+    private boolean isDone(int player){
+        return pieces[player] == 0 || skips[player] >= skipLimit;
+    }
+    // A player without legal move never gets one back (its pieces and anchors only decrease)
+    private boolean isStuck(int player){
+        if(!stuck[player] && !mobile[player]){
+            stuck[player]   = !board.hasLegalMove(player == 0 ? Board.Cell.FIRST_PLAYER : Board.Cell.SECOND_PLAYER, pieces[player]);
+            mobile[player]  = !stuck[player];
+        }
+        return stuck[player];
+    }
+    /**
+     * Returns the winner of the round, assuming it has ended.
+     */
+    public Board.Cell getWinner(){
+        final int first = Piece.countTiles(pieces[0]), second = Piece.countTiles(pieces[1]);
+        if(first != second) return first < second ? Board.Cell.FIRST_PLAYER : Board.Cell.SECOND_PLAYER;
+        return pieces[0] == 0 || skips[1] >= skipLimit || isStuck(1) ? Board.Cell.FIRST_PLAYER : Board.Cell.SECOND_PLAYER;
+    }
+    
+    public Board getBoard(){
+        return board;
+    }
+    public int getPieceMask(Board.Cell type){
+        return pieces[type == Board.Cell.FIRST_PLAYER ? 0 : 1];
+    }
+    public int countScore(Board.Cell type){
+        return Piece.countTiles(getPieceMask(type));
+    }
+    public int countSkip(Board.Cell type){
+        return skips[type == Board.Cell.FIRST_PLAYER ? 0 : 1];
+    }
+    /**
+     * Returns the number of turns played since the last reset.
+     */
+    public int countTurns(){
+        return turns;
+    }
+    
+    /**
+     * Returns a policy playing uniformly at random among the legal moves, like the RandomStrategy.
+     * A policy is not thread-safe: each thread needs its own.
+     */
+    public static Policy random(SplittableRandom random){
+        return new Policy() {
+            private int[] buffer = new int[1024];
+            @Override
+            public int choose(Board board, Board.Cell type, int pieces, int opponentPieces) {
+                int count = board.legalMoves(type, pieces, buffer);
+                if(count > buffer.length){
+                    buffer = new int[Integer.highestOneBit(count) << 1];
+                    count = board.legalMoves(type, pieces, buffer);
+                }
+                return count == 0 ? Move.NO_MOVE : buffer[random.nextInt(count)];
+            }
+            @Override
+            public boolean isExhaustive() {
+                return true;
+            }
+        };
+    }
+    /**
+     * Returns a policy playing a random legal move, much faster but less uniform than {@link #random}: it draws a
+     * random placement of a random piece on a random anchor (see {@link PlacementTable#getCovering}), a few times,
+     * before trying every placement on the anchors from random ones (which also tells when there is no legal move).
+     * It never generates the list of the legal moves.
+     */
+    public static Policy fastRandom(SplittableRandom random){
+        return new Policy() {
+            private int[] anchors = new int[Board.DEFAULT_SIZE * Board.DEFAULT_SIZE];
+            @Override
+            public int choose(Board board, Board.Cell type, int pieces, int opponentPieces) {
+                int count = board.getAnchors(type, anchors);
+                if(count > anchors.length){
+                    anchors = new int[count];
+                    board.getAnchors(type, anchors);
+                }
+                if((pieces & MONOMINO) == 0){
+                    // Any other piece hooked on an anchor also covers a side neighbour: drop the dead anchors
+                    int live = 0;
+                    for(int a=0; a<count; a++){
+                        if(hasFreeSide(board, anchors[a], type)) anchors[live++] = anchors[a];
+                    }
+                    count = live;
+                }
+                if(count == 0 || pieces == 0) return Move.NO_MOVE;
+                final PlacementTable table = board.getPlacementTable();
+                final int remaining = Integer.bitCount(pieces);
+                int anchor, piece, placements, entry;
+                for(int attempt=0; attempt<SAMPLES; attempt++){
+                    anchor      = anchors[random.nextInt(count)];
+                    piece       = nthPiece(pieces, random.nextInt(remaining));
+                    placements  = table.countCovering(anchor, piece);
+                    if(placements == 0) continue;
+                    entry       = table.getCovering(anchor, piece, random.nextInt(placements));
+                    if(board.canPlaceEntry(entry, type)) return table.toMove(entry);
+                }
+                final int firstAnchor = random.nextInt(count), firstPiece = random.nextInt(remaining);
+                for(int a=0; a<count; a++){
+                    anchor = anchors[(firstAnchor + a) % count];
+                    for(int p=0; p<remaining; p++){
+                        piece       = nthPiece(pieces, (firstPiece + p) % remaining);
+                        placements  = table.countCovering(anchor, piece);
+                        for(int i=0; i<placements; i++){
+                            entry = table.getCovering(anchor, piece, i);
+                            if(board.canPlaceEntry(entry, type)) return table.toMove(entry);
+                        }
+                    }
+                }
+                return Move.NO_MOVE;
+            }
+            @Override
+            public boolean isExhaustive() {
+                return true;
+            }
+        };
+    }
+    private static boolean hasFreeSide(Board board, int anchor, Board.Cell type){
+        final int x = board.getX(anchor), y = board.getY(anchor);
+        return isFree(board, x - 1, y, type) || isFree(board, x + 1, y, type) || isFree(board, x, y - 1, type) || isFree(board, x, y + 1, type);
+    }
+    private static boolean isFree(Board board, int x, int y, Board.Cell type){
+        if(!board.isInBounds(x, y)) return false;
+        return !board.isForbidden(x, y, type) || board.getCellAt(y, x) == Board.Cell.START_PLACE;
+    }
+    private static int nthPiece(int pieces, int n){
+        for(; n > 0; n--) pieces &= pieces - 1;
+        return Integer.numberOfTrailingZeros(pieces);
+    }
+}
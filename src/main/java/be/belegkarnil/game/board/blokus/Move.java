@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * This class is a core class of the Game and represents an immutable placement of a {@link Piece}:
+ * the piece, the shape index and the (x,y) translation of the shape. Unlike the {@link Piece} constants,
+ * whose shape and translation are shared by everyone, a move can be used by several threads or games.
+ * <p>
+ * A move is also packed in a single int: the piece ordinal, the shape index and the coordinates as
+ * signed bytes, so that out of bounds placements can be represented (and rejected by the {@link Board}).
+ *
+ * @author Belegkarnil
+ */
+public final class Move implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1234567L;
+    public static final int NO_MOVE = -1;
+    private final int code;
+
+    private Move(int code){
+        this.code = code;
+    }
+    public static Move of(Piece piece, int shape, int x, int y){
+        if(shape < 0 || shape >= piece.countShapes())
+            throw new IllegalArgumentException("Piece "+piece+" has no shape "+shape);
+        return new Move(pack(piece.ordinal(), shape, x, y));
+    }
+    /**
+     * Returns the move of a packed int, or null for {@link #NO_MOVE}.
+     */
+    public static Move of(int move){
+        if(move == NO_MOVE) return null;
+        return of(Piece.of(pieceOf(move)), shapeOf(move), xOf(move), yOf(move));
+    }
+    /**
+     * Captures the current shape and translation of the piece (or returns null for a null piece).
+     * This is the bridge with the {@link Piece}-returning API of {@link Strategy#action}.
+     */
+    public static Move of(Piece piece){
+        if(piece == null) return null;
+        return of(piece, piece.getShape(), piece.getTranslationX(), piece.getTranslationY());
+    }
+
+    public static int pack(int piece, int shape, int x, int y){
+        return piece << 24 | (shape & 0xFF) << 16 | (y & 0xFF) << 8 | (x & 0xFF);
+    }
+    public static int pieceOf(int move){
+        return move >>> 24;
+    }
+    public static int shapeOf(int move){
+        return (move >>> 16) & 0xFF;
+    }
+    public static int xOf(int move){
+        return (byte) move;
+    }
+    public static int yOf(int move){
+        return (byte) (move >>> 8);
+    }
+
+    public Piece getPiece(){
+        return Piece.of(pieceOf(code));
+    }
+    public int getShape(){
+        return shapeOf(code);
+    }
+    public int getX(){
+        return xOf(code);
+    }
+    public int getY(){
+        return yOf(code);
+    }
+    public int toInt(){
+        return code;
+    }
+    public int countTiles(){
+        return getPiece().countTiles();
+    }
+    public Point[] getPositions(){
+        final Point[] tiles = getPiece().getShapeTiles(getShape());
+        final Point[] positions = new Point[tiles.length];
+        for(int i=0; i<tiles.length; i++){
+            positions[i] = new Point(tiles[i].getX() + getX(), tiles[i].getY() + getY());
+        }
+        return positions;
+    }
+    /**
+     * Calls the action with each position of this move, without allocation.
+     */
+    public void forEachPosition(PositionConsumer action){
+        getPiece().forEachTile(getShape(), getX(), getY(), action);
+    }
+    /**
+     * Moves the shared {@link Piece} constant to this placement and returns it. It only exists for
+     * the legacy {@link Strategy#action} API and is not thread-safe.
+     */
+    public Piece toPiece(){
+        final Piece piece = getPiece();
+        piece.reset();
+        while(piece.getShape() != getShape()) piece.next();
+        piece.move(getX(), getY());
+        return piece;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(! (o instanceof Move)) return false;
+        return ((Move) o).code == code;
+    }
+    @Override
+    public int hashCode(){
+        return code;
+    }
+    @Override
+    public String toString(){
+        return getClass().getSimpleName()+"["+getPiece().name()+",shape="+getShape()+",x="+getX()+",y="+getY()+"]";
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class is a core class of the Game and holds the opening moves of positions, with their statistics, e.g. to be
+ * played by the {@link be.belegkarnil.game.board.blokus.strategy.OpeningBookStrategy}. A book is a binary file
+ * (see {@link OpeningBookBuilder}) made of a header and of fixed-size records sorted by position hash (see
+ * {@link Board#hash(Board.Cell)}), then by number of games: the hash, the packed {@link Move} and the numbers of won
+ * and played games of the player who moved. The file is memory-mapped and searched by binary search, directly in the
+ * mapped buffer: opening a book reads nothing but its header and a lookup creates no object.
+ * A book is immutable and can be shared by several threads.
+ *
+ * @author Belegkarnil
+ */
+public final class OpeningBook {
+    public static final int MAGIC = 0x424C4B42;// "BLKB"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;// magic, version, board size and number of records
+    public static final int RECORD_SIZE = 20;// hash, move, wins and games
+    public static final int NOT_FOUND = -1;
+    
+    private final ByteBuffer buffer;
+    private final int size, count;
+    
+    private OpeningBook(ByteBuffer buffer){
+        if(buffer.getInt(0) != MAGIC) throw new IllegalArgumentException("Not an opening book");
+        if(buffer.getInt(4) != VERSION) throw new IllegalArgumentException("Opening book version "+buffer.getInt(4)+" is not supported");
+        this.buffer = buffer;
+        this.size   = buffer.getInt(8);
+        this.count  = buffer.getInt(12);
+        if(buffer.capacity() < HEADER_SIZE + (long) count * RECORD_SIZE) throw new IllegalArgumentException("Truncated opening book");
+    }
+    
+    /**
+     * Maps a book file in memory (read-only).
+     */
+    public static OpeningBook open(File file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(buffer);
+        }
+    }
+    
+    /**
+     * Returns the size of the boards of the book.
+     */
+    public int getSize(){
+        return size;
+    }
+    public int countRecords(){
+        return count;
+    }
+    public long getHash(int record){
+        return buffer.getLong(offsetOf(record));
+    }
+    public int getMove(int record){
+        return buffer.getInt(offsetOf(record) + 8);
+    }
+    public int countWins(int record){
+        return buffer.getInt(offsetOf(record) + 12);
+    }
+    public int countGames(int record){
+        return buffer.getInt(offsetOf(record) + 16);
+    }
+    private static int offsetOf(int record){
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+    
+    /**
+     * Returns the first record of the position (the most played move), or {@link #NOT_FOUND}. The other moves of
+     * the position follow it, while {@link #getHash} is the same.
+     */
+    public int find(long hash){
+        int low = 0, high = count - 1, middle;
+        while(low <= high){
+            middle = (low + high) >>> 1;
+            if(getHash(middle) < hash) low = middle + 1;
+            else high = middle - 1;
+        }
+        return low < count && getHash(low) == hash ? low : NOT_FOUND;
+    }
+    /**
+     * Returns the move of the position played in at least minGames games with the best win rate, the rate being
+     * estimated as (wins + 1) / (games + 2) so that a few lucky games do not prevail, or {@link Move#NO_MOVE}.
+     */
+    public int bestMove(long hash, int minGames){
+        int best = Move.NO_MOVE, games;
+        long bestWins = 0, bestGames = 1;
+        for(int record=find(hash); record != NOT_FOUND && record < count && getHash(record) == hash; record++){
+            games = countGames(record);
+            if(games < minGames) continue;
+            // (wins + 1) / (games + 2) > (bestWins + 1) / (bestGames + 2), without division
+            if(best == Move.NO_MOVE || (countWins(record) + 1L) * (bestGames + 2L) > (bestWins + 1L) * (games + 2L)){
+                best        = getMove(record);
+                bestWins    = countWins(record);
+                bestGames   = games;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * This class is a main class that compiles an {@link OpeningBook} from the logs of games, as written by the log
+ * panel of the GUI (see {@link be.belegkarnil.game.board.blokus.gui.LogPanel}): the first plies of each round are
+ * replayed (a missing or illegal action is a skip) and each move is counted, with the position before it, as a won
+ * or lost game for its player. The rounds whose winner is not known are ignored.
+ * <p>
+ * Usage: {@code OpeningBookBuilder [-plies n] [-min n] book log...} where a log can be a directory (all its files
+ * are read, recursively) and a move is kept in the book if it was played in at least {@code min} games.
+ *
+ * @author Belegkarnil
+ */
+public class OpeningBookBuilder {
+    public static final int DEFAULT_PLIES = 8;// the first 4 moves of each player
+    public static final int DEFAULT_MIN_GAMES = 1;
+    
+    private final int size, plies;
+    private final Map<Long,Map<Integer,int[]>> statistics;// hash -> move -> wins and games
+    private int rounds;
+    
+    public OpeningBookBuilder(int size, int plies){
+        if(plies < 1) throw new IllegalArgumentException("plies must be positive");
+        this.size       = size;
+        this.plies      = plies;
+        this.statistics = new HashMap<Long,Map<Integer,int[]>>();
+    }
+    
+    /**
+     * Adds the rounds of a log file, or of all the files of a directory.
+     */
+    public void add(File file) throws IOException {
+        if(file.isDirectory()){
+            final File[] files = file.listFiles();
+            if(files != null) for(File child:files) add(child);
+        }else{
+            try(InputStream in = new FileInputStream(file)){
+                add(in);
+            }
+        }
+    }
+    /**
+     * Adds the rounds of a log.
+     */
+    public void add(InputStream in){
+        final Scanner scan = new Scanner(in);
+        final Board board = new Board(size);
+        final int[] pieces = new int[2];
+        final long[] hashes = new long[plies];
+        final int[] moves = new int[plies], players = new int[plies];
+        String first = null, second = null, winner = null;
+        int ply = 0, count = 0, turn = 0, firstScore = 0;
+        boolean inRound = false;
+        while(scan.hasNextLine()){
+            final String line = scan.nextLine();
+            if(line.startsWith("Round ")){
+                board.initialize(null, null);
+                pieces[0] = pieces[1] = GameSimulator.ALL_PIECES;
+                first = second = winner = null;
+                ply = count = 0;
+                inRound = true;
+            }else if(!inRound){
+                continue;// the header and the end of a game
+            }else if(line.startsWith("Player1=")){
+                first = line.substring("Player1=".length());
+            }else if(line.startsWith("Player2=")){
+                second = line.substring("Player2=".length());
+            }else if(line.startsWith("Turn ")){
+                turn = Integer.parseInt(line.substring("Turn ".length()).strip());
+            }else if(line.startsWith("Action=")){
+                if(ply++ >= plies) continue;
+                // the first player of the round owns the cells of the first player, and moves at the even turns
+                final int player = turn & 1;
+                final Board.Cell type = player == 0 ? Board.Cell.FIRST_PLAYER : Board.Cell.SECOND_PLAYER;
+                final int move = parseMove(line.substring("Action=".length()));
+                if(move == Move.NO_MOVE || (pieces[player] & 1 << Move.pieceOf(move)) == 0 || !board.canPlace(move, type)) continue;
+                hashes[count]   = board.hash(type);
+                moves[count]    = move;
+                players[count]  = player;
+                count++;
+                board.apply(move, type);
+                pieces[player] &= ~(1 << Move.pieceOf(move));
+            }else if(line.startsWith("Winner is ")){
+                winner = line.substring("Winner is ".length());
+            }else if(line.startsWith("Player1 score is ")){
+                firstScore = Integer.parseInt(line.substring("Player1 score is ".length()).strip());
+            }else if(line.startsWith("Player2 score is ")){
+                final int secondScore = Integer.parseInt(line.substring("Player2 score is ".length()).strip());
+                inRound = false;
+                final int won;
+                if(winner != null && winner.equals(first) && !winner.equals(second)) won = 0;
+                else if(winner != null && winner.equals(second) && !winner.equals(first)) won = 1;
+                else if(firstScore != secondScore) won = firstScore < secondScore ? 0 : 1;
+                else continue;
+                for(int i=0; i<count; i++){
+                    final int[] record = statistics.computeIfAbsent(hashes[i], hash -> new HashMap<Integer,int[]>())
+                                                   .computeIfAbsent(moves[i], move -> new int[2]);
+                    if(players[i] == won) record[0]++;
+                    record[1]++;
+                }
+                rounds++;
+            }
+        }
+    }
+    /**
+     * Parses an action of the log, e.g. {@code FIVE_F, x=3, y=2, shape=0}, or returns {@link Move#NO_MOVE}.
+     */
+    private static int parseMove(String action){
+        if(action.equals("none")) return Move.NO_MOVE;
+        String piece = null;
+        int x = -1, y = -1, shape = -1;
+        for(String param:action.split(",")){
+            param = param.strip();
+            if(param.startsWith("x=")) x = Integer.parseInt(param.substring("x=".length()));
+            else if(param.startsWith("y=")) y = Integer.parseInt(param.substring("y=".length()));
+            else if(param.startsWith("shape=")) shape = Integer.parseInt(param.substring("shape=".length()));
+            else piece = param;
+        }
+        try{
+            return Move.of(Piece.valueOf(piece), shape, x, y).toInt();
+        }catch(IllegalArgumentException | NullPointerException e){
+            return Move.NO_MOVE;
+        }
+    }
+    
+    public int countRounds(){
+        return rounds;
+    }
+    public int countPositions(){
+        return statistics.size();
+    }
+    
+    /**
+     * Writes the book, with the moves played in at least minGames games, and returns the number of records.
+     */
+    public int write(File file, int minGames) throws IOException {
+        final List<long[]> records = new ArrayList<long[]>();// hash, move, wins, games
+        for(Map.Entry<Long,Map<Integer,int[]>> position:statistics.entrySet()){
+            for(Map.Entry<Integer,int[]> move:position.getValue().entrySet()){
+                if(move.getValue()[1] < minGames) continue;
+                records.add(new long[]{ position.getKey(), move.getKey(), move.getValue()[0], move.getValue()[1] });
+            }
+        }
+        // by hash (as searched by the book), then the most played moves first
+        records.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[3], a[3]));
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))){
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(size);
+            out.writeInt(records.size());
+            for(long[] record:records){
+                out.writeLong(record[0]);
+                out.writeInt((int) record[1]);
+                out.writeInt((int) record[2]);
+                out.writeInt((int) record[3]);
+            }
+        }
+        return records.size();
+    }
+    
+    public static void main(String[] args) throws IOException {
+        int plies = DEFAULT_PLIES, minGames = DEFAULT_MIN_GAMES;
+        final List<File> files = new ArrayList<File>();
+        for(int i=0; i<args.length; i++){
+            switch(args[i]){
+                case "-plies":  plies       = Integer.parseInt(args[++i]); break;
+                case "-min":    minGames    = Integer.parseInt(args[++i]); break;
+                default:        files.add(new File(args[i]));
+            }
+        }
+        if(files.size() < 2){
+            System.err.println("Usage: OpeningBookBuilder [-plies n] [-min n] book log...");
+            System.exit(1);
+        }
+        final OpeningBookBuilder builder = new OpeningBookBuilder(Board.DEFAULT_SIZE, plies);
+        for(File file:files.subList(1, files.size())) builder.add(file);
+        final int records = builder.write(files.get(0), minGames);
+        System.out.println(builder.countRounds()+" rounds, "+builder.countPositions()+" positions, "+records+" moves written to "+files.get(0));
+    }
+}
@@ -23,9 +23,9 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.TreeSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -64,6 +64,7 @@ public enum Piece implements Serializable{
     private final Point[][] shapes;
     private int shape;
     private final Point translation;
+    private static final Piece[] VALUES = values();
     private static Comparator<Point> POINT_COMPARATOR = null;
     private static Comparator<Point[]> POSITION_COMPARATOR = null;
     
@@ -218,6 +219,32 @@ public enum Piece implements Serializable{
         return result;
     }
     
+    /**
+     * Returns the piece of the given ordinal without copying {@link #values()}.
+     */
+    public static Piece of(int ordinal){
+        return VALUES[ordinal];
+    }
+    /**
+     * Returns the total number of tiles of the pieces in the mask (see {@link #maskOf}).
+     */
+    public static int countTiles(int mask){
+        int sum = 0;
+        while(mask != 0){
+            sum += VALUES[Integer.numberOfTrailingZeros(mask)].shapes[0].length;
+            mask &= mask - 1;
+        }
+        return sum;
+    }
+    /**
+     * Returns the mask of the pieces, where the bit of each piece is given by its ordinal.
+     */
+    public static int maskOf(Collection<Piece> pieces){
+        int mask = 0;
+        for(Piece piece:pieces) mask |= 1 << piece.ordinal();
+        return mask;
+    }
+    
     public int countTiles(){
         return this.shapes[this.shape].length;
     }
@@ -239,17 +266,34 @@ public enum Piece implements Serializable{
     }
 
     public Point[] getPositions(){
-        Point[] copy = new Point[this.shapes[this.shape].length];
-        for (int i = 0; i < copy.length; i++) copy[i] = (Point) this.shapes[this.shape][i].clone();
-        
+        final Point[] tiles = this.shapes[this.shape];
+        final Point[] copy = new Point[tiles.length];
         final int dx = this.translation.getX();
         final int dy = this.translation.getY();
-        for(Point p:copy){
-            p.translate(dx, dy);
-        }
-
+        for (int i = 0; i < copy.length; i++) copy[i] = new Point(tiles[i].getX() + dx, tiles[i].getY() + dy);
         return copy;
     }
+    /**
+     * Calls the action with each position of the current shape and translation, without allocation.
+     */
+    public void forEachPosition(PositionConsumer action){
+        forEachTile(this.shape, this.translation.getX(), this.translation.getY(), action);
+    }
+    /**
+     * Calls the action with each tile of the shape moved by (dx,dy), without allocation.
+     */
+    public void forEachTile(int shape, int dx, int dy, PositionConsumer action){
+        for(Point tile:this.shapes[shape]) action.accept(tile.getX() + dx, tile.getY() + dy);
+    }
+    int getTranslationX(){
+        return this.translation.getX();
+    }
+    int getTranslationY(){
+        return this.translation.getY();
+    }
+    Point[] getShapeTiles(int shape){
+        return this.shapes[shape];
+    }
     private static void normalize(Point[] points){
         // FIXME Seems to does not work
         // Move the points to 0,0 as closest positive coordinates
@@ -277,31 +321,30 @@ public enum Piece implements Serializable{
 	}
    
     public Point[] getCorners() {
-        Point[] pos = getPositions();
-        Set<Point> corners = new HashSet<Point>();
-        for(Point p:pos){
-            Point corner;
-            corner = new Point(p.getX()-1,p.getY()-1);
-            if(!isInShape(corner,pos)) corners.add(corner);
-            corner = new Point(p.getX()+1,p.getY()-1);
-            if(!isInShape(corner,pos)) corners.add(corner);
-            corner = new Point(p.getX()+1,p.getY()+1);
-            if(!isInShape(corner,pos)) corners.add(corner);
-            corner = new Point(p.getX()-1,p.getY()+1);
-            if(!isInShape(corner,pos)) corners.add(corner);
-        }
-        Point[] res = new Point[corners.size()];
-        int i=0;
-        for(Point corner: corners){
-            res[i] = corner;
-            i++;
+        final Point[] tiles = this.shapes[this.shape];
+        final Point[] corners = new Point[tiles.length << 2];
+        int count = 0;
+        for(Point p:tiles){
+            count = addCorner(corners, count, p.getX()-1, p.getY()-1);
+            count = addCorner(corners, count, p.getX()+1, p.getY()-1);
+            count = addCorner(corners, count, p.getX()+1, p.getY()+1);
+            count = addCorner(corners, count, p.getX()-1, p.getY()+1);
         }
-        return res;
+        final int dx = this.translation.getX();
+        final int dy = this.translation.getY();
+        for(int i=0; i<count; i++) corners[i].translate(dx, dy);
+        return Arrays.copyOf(corners, count);
     }
     
-    private static boolean isInShape(Point corner, Point[] pos) {
-        for(Point p:pos)
-            if(p.equals(corner)) return true;
+    private int addCorner(Point[] corners, int count, int x, int y){
+        if(isInShape(x, y, this.shapes[this.shape], this.shapes[this.shape].length)) return count;
+        if(isInShape(x, y, corners, count)) return count;
+        corners[count] = new Point(x, y);
+        return count + 1;
+    }
+    private static boolean isInShape(int x, int y, Point[] pos, int length) {
+        for(int i=0; i<length; i++)
+            if(pos[i].getX() == x && pos[i].getY() == y) return true;
         return false;
     }
    
@@ -0,0 +1,290 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is a core class of the Game and holds every placement of every {@link Piece}, shape and
+ * translation for a given {@link Board} size. Each placement (entry) stores the bitboard of the occupied
+ * cells, of the side neighbours and of the diagonal neighbours, so that a placement is tested with a
+ * lookup and a few bitwise operations. Each placement also has, per player, a Zobrist key (the keys of its
+ * cells and of its piece), so that the position hash of a {@link Board} is updated with a single xor.
+ * The placements of each piece covering each cell are listed as well, so that the placements hooked on an
+ * anchor are enumerated (or drawn at random) without trying every shape and tile.
+ * Tables are immutable and shared by all the boards of the same size.
+ *
+ * @author Belegkarnil
+ */
+public final class PlacementTable {
+    public static final int NO_ENTRY = -1;
+    private static final long ZOBRIST_SEED = 0x426C6F6B7573L;// fixed so that hashes can be stored
+    private static final Map<Integer,PlacementTable> TABLES = new ConcurrentHashMap<Integer,PlacementTable>();
+    private static final PlacementTable DEFAULT = new PlacementTable(Board.DEFAULT_SIZE);
+
+    private final int size, words, cells;
+    private final int[] firstShape;     // per piece, index of its first shape
+    private final int[] pieceOf;        // per shape, its piece
+    private final int[] width, height;  // per shape, bounding box
+    private final int[][] tileX, tileY; // per shape, tile coordinates
+    final long[] occupied, sides, corners;// per entry, 'words' longs each
+    final long[] keys;// per entry, one Zobrist key per player
+    private final long[] span;// per entry, the occupied cells as two words from its spanWord, when compact
+    private final int[] spanWord;
+    private final boolean compact;// every placement spans at most two words
+    final int[] covering;// per cell and piece, the entries of the piece covering the cell
+    final int[] coveringStart;// per cell and piece (cell * pieces + piece), the first index in covering
+    private final long sideKey;
+
+    private PlacementTable(int size){
+        final Piece[] pieces = Piece.values();
+        this.size       = size;
+        this.words      = Board.countWords(size);
+        this.cells      = size * size;
+        this.firstShape = new int[pieces.length + 1];
+        for(Piece piece:pieces){
+            firstShape[piece.ordinal() + 1] = firstShape[piece.ordinal()] + piece.countShapes();
+        }
+        final int shapes = firstShape[pieces.length];
+        this.pieceOf    = new int[shapes];
+        for(Piece piece:pieces){
+            Arrays.fill(pieceOf, firstShape[piece.ordinal()], firstShape[piece.ordinal() + 1], piece.ordinal());
+        }
+        this.width  = new int[shapes];
+        this.height = new int[shapes];
+        this.tileX  = new int[shapes][];
+        this.tileY  = new int[shapes][];
+        for(Piece piece:pieces){
+            for(int shape=0; shape<piece.countShapes(); shape++){
+                final Point[] tiles = piece.getShapeTiles(shape);
+                final int id = firstShape[piece.ordinal()] + shape;
+                tileX[id] = new int[tiles.length];
+                tileY[id] = new int[tiles.length];
+                for(int i=0; i<tiles.length; i++){
+                    tileX[id][i]    = tiles[i].getX();
+                    tileY[id][i]    = tiles[i].getY();
+                    width[id]       = Math.max(width[id], tiles[i].getX() + 1);
+                    height[id]      = Math.max(height[id], tiles[i].getY() + 1);
+                }
+            }
+        }
+        this.occupied   = new long[shapes * cells * words];
+        this.sides      = new long[shapes * cells * words];
+        this.corners    = new long[shapes * cells * words];
+        this.keys       = new long[shapes * cells * 2];
+        
+        final SplittableRandom random = new SplittableRandom(ZOBRIST_SEED ^ size);
+        final long[][] cellKeys = new long[2][cells];
+        final long[][] pieceKeys = new long[2][pieces.length];
+        for(int player=0; player<2; player++){
+            for(int cell=0; cell<cells; cell++) cellKeys[player][cell] = random.nextLong();
+            for(int piece=0; piece<pieces.length; piece++) pieceKeys[player][piece] = random.nextLong();
+        }
+        this.sideKey = random.nextLong();
+        
+        for(Piece piece:pieces){
+            for(int shape=0; shape<piece.countShapes(); shape++){
+                final int id = firstShape[piece.ordinal()] + shape;
+                for(int y=0; y + height[id] <= size; y++){
+                    for(int x=0; x + width[id] <= size; x++){
+                        final int entry = id * cells + y * size + x;
+                        fill(entry * words, id, x, y);
+                        for(int player=0; player<2; player++){
+                            keys[entry * 2 + player] = pieceKeys[player][piece.ordinal()];
+                            for(int i=0; i<tileX[id].length; i++){
+                                keys[entry * 2 + player] ^= cellKeys[player][(tileY[id][i] + y) * size + tileX[id][i] + x];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        
+        final int entries = shapes * cells;
+        this.span       = new long[entries * 2];
+        this.spanWord   = new int[entries];
+        boolean compact = words >= 2;
+        for(int entry=0; entry<entries && compact; entry++){
+            int first = 0, last = words - 1;
+            while(first < last && occupied[entry * words + first] == 0L) first++;
+            while(last > first && occupied[entry * words + last] == 0L) last--;
+            spanWord[entry] = Math.min(first, words - 2);
+            span[entry * 2]     = occupied[entry * words + spanWord[entry]];
+            span[entry * 2 + 1] = occupied[entry * words + spanWord[entry] + 1];
+            compact = last - first < 2;
+        }
+        this.compact = compact;
+        
+        this.coveringStart = new int[cells * pieces.length + 1];
+        for(int cell=0; cell<cells; cell++){
+            for(int piece=0; piece<pieces.length; piece++){
+                coveringStart[cell * pieces.length + piece + 1] = coveringStart[cell * pieces.length + piece] + listCovering(cell, piece, null, 0);
+            }
+        }
+        this.covering = new int[coveringStart[cells * pieces.length]];
+        for(int cell=0; cell<cells; cell++){
+            for(int piece=0; piece<pieces.length; piece++){
+                listCovering(cell, piece, covering, coveringStart[cell * pieces.length + piece]);
+            }
+        }
+    }
+    // Lists (or only counts without list) the entries of the piece covering the cell, by shape then by tile
+    private int listCovering(int cell, int piece, int[] list, int offset){
+        int count = 0, entry;
+        for(int shape=0; shape<countShapes(piece); shape++){
+            for(int tile=0; tile<countTiles(piece); tile++){
+                entry = entry(piece, shape, cell % size - getTileX(piece, shape, tile), cell / size - getTileY(piece, shape, tile));
+                if(entry == NO_ENTRY) continue;
+                if(list != null) list[offset + count] = entry;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void fill(int base, int id, int dx, int dy){
+        for(int i=0; i<tileX[id].length; i++){
+            set(occupied, base, (tileY[id][i] + dy) * size + tileX[id][i] + dx);
+        }
+        int x, y;
+        for(int i=0; i<tileX[id].length; i++){
+            x = tileX[id][i] + dx;
+            y = tileY[id][i] + dy;
+            mark(sides, base, x-1, y);
+            mark(sides, base, x+1, y);
+            mark(sides, base, x, y-1);
+            mark(sides, base, x, y+1);
+        }
+        for(int i=0; i<tileX[id].length; i++){
+            x = tileX[id][i] + dx;
+            y = tileY[id][i] + dy;
+            mark(corners, base, x-1, y-1);
+            mark(corners, base, x+1, y+1);
+            mark(corners, base, x+1, y-1);
+            mark(corners, base, x-1, y+1);
+        }
+        for(int w=0; w<words; w++){
+            sides[base + w]     &= ~occupied[base + w];
+            corners[base + w]   &= ~(occupied[base + w] | sides[base + w]);
+        }
+    }
+    private void mark(long[] masks, int base, int x, int y){
+        if(x < 0 || y < 0 || x >= size || y >= size) return;
+        set(masks, base, y * size + x);
+    }
+    private static void set(long[] masks, int base, int index){
+        masks[base + (index >>> 6)] |= 1L << index;
+    }
+    private static boolean intersects(long[] masks, int base, long[] mask, int words){
+        for(int w=0; w<words; w++){
+            if((masks[base + w] & mask[w]) != 0L) return true;
+        }
+        return false;
+    }
+
+    public static PlacementTable forSize(int size){
+        if(size == Board.DEFAULT_SIZE) return DEFAULT;
+        return TABLES.computeIfAbsent(size, PlacementTable::new);
+    }
+
+    public int getSize(){
+        return size;
+    }
+    public int countWords(){
+        return words;
+    }
+    public int countShapes(int piece){
+        return firstShape[piece + 1] - firstShape[piece];
+    }
+    public int countTiles(int piece){
+        return tileX[firstShape[piece]].length;
+    }
+    public int getTileX(int piece, int shape, int i){
+        return tileX[firstShape[piece] + shape][i];
+    }
+    public int getTileY(int piece, int shape, int i){
+        return tileY[firstShape[piece] + shape][i];
+    }
+
+    /**
+     * Returns the entry of a placement where (x,y) is the translation of the shape, i.e. the top left
+     * corner of its bounding box, or {@link #NO_ENTRY} when the placement does not fit in the board.
+     */
+    public int entry(int piece, int shape, int x, int y){
+        if(piece < 0 || piece + 1 >= firstShape.length) return NO_ENTRY;
+        if(shape < 0 || shape >= countShapes(piece) || x < 0 || y < 0) return NO_ENTRY;
+        final int id = firstShape[piece] + shape;
+        if(x + width[id] > size || y + height[id] > size) return NO_ENTRY;
+        return id * cells + y * size + x;
+    }
+    /**
+     * Returns the packed {@link Move} of an entry.
+     */
+    public int toMove(int entry){
+        final int id = entry / cells, cell = entry % cells;
+        return Move.pack(pieceOf[id], id - firstShape[pieceOf[id]], cell % size, cell / size);
+    }
+    /**
+     * Returns the ordinal of the piece of an entry.
+     */
+    public int toPiece(int entry){
+        return pieceOf[entry / cells];
+    }
+    /**
+     * Returns the number of placements of the piece that cover the cell (y * size + x).
+     */
+    public int countCovering(int cell, int piece){
+        final int index = cell * (firstShape.length - 1) + piece;
+        return coveringStart[index + 1] - coveringStart[index];
+    }
+    /**
+     * Returns the entry of the i-th placement of the piece that covers the cell (y * size + x), by shape then by
+     * tile of the shape on the cell.
+     */
+    public int getCovering(int cell, int piece, int i){
+        return covering[coveringStart[cell * (firstShape.length - 1) + piece] + i];
+    }
+    /**
+     * Returns the Zobrist key of the placement for a player (0 for the first player, 1 for the second one).
+     */
+    public long getKey(int entry, int player){
+        return keys[entry * 2 + player];
+    }
+    /**
+     * Returns the Zobrist key xored in a position hash when the second player is to move.
+     */
+    public long getSideKey(){
+        return sideKey;
+    }
+    public boolean occupies(int entry, long[] mask){
+        if(!compact) return intersects(occupied, entry * words, mask, words);
+        final int w = spanWord[entry];
+        return (span[entry * 2] & mask[w] | span[entry * 2 + 1] & mask[w + 1]) != 0L;
+    }
+    public boolean touchesSide(int entry, long[] mask){
+        return intersects(sides, entry * words, mask, words);
+    }
+    public boolean touchesCorner(int entry, long[] mask){
+        return intersects(corners, entry * words, mask, words);
+    }
+}
@@ -26,12 +26,14 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
  * This class is a core class of the Game and represents the Player that owns its {@link Strategy}.
+ * The remaining pieces are kept as a mask (see {@link Piece#maskOf}) along with their number of tiles.
  *
  * @author Belegkarnil
  */
@@ -40,14 +42,19 @@ public class Player implements Externalizable {
     private static final long serialVersionUID = 1234567L;
     private String name;
     private Strategy strategy;
-    private List<Piece> pieces;
+    private int pieces, score;
+    private List<Piece> view;// immutable list of the pieces, rebuilt when the mask changes
     private int win, skip;
+    private long cpuTime, allocatedBytes;// of the strategy, for the whole game
+    private boolean quarantined;
     public Player(String name, Strategy strategy){
         this.name       = name;
         this.strategy   = strategy;
         this.win        = 0;
         this.skip       = 0;
-        this.pieces     = new LinkedList<Piece>();
+        this.pieces     = 0;
+        this.score      = 0;
+        this.view       = List.of();
     }
 
     public Strategy getStrategy() {
@@ -66,9 +73,7 @@ public class Player implements Externalizable {
         return skip;
     }
     public int countScore(){
-        int sum = 0;
-        for(Piece piece : pieces) sum += piece.countTiles();
-        return sum;
+        return score;
     }
 
     public void win(){
@@ -77,19 +82,65 @@ public class Player implements Externalizable {
     public void skip(){
         skip++;
     }
+    /**
+     * Returns the CPU time used by the strategy in nanoseconds, for the turns run on a platform thread.
+     */
+    public long countCpuTime(){
+        return cpuTime;
+    }
+    /**
+     * Returns the bytes allocated by the strategy, for the turns run on a platform thread.
+     */
+    public long countAllocatedBytes(){
+        return allocatedBytes;
+    }
+    void charge(long cpuTime, long allocatedBytes){
+        if(cpuTime > 0) this.cpuTime += cpuTime;
+        if(allocatedBytes > 0) this.allocatedBytes += allocatedBytes;
+    }
+    /**
+     * Tells whether the strategy ignored an interruption at timeout: it is not called anymore during the game.
+     */
+    public boolean isQuarantined(){
+        return quarantined;
+    }
+    void quarantine(){
+        quarantined = true;
+    }
 
     public List<Piece> getPieces(){
-        return List.copyOf(this.pieces);
+        List<Piece> view = this.view;
+        if(view == null){
+            final List<Piece> list = new ArrayList<Piece>(Integer.bitCount(this.pieces));
+            for(int mask=this.pieces; mask != 0; mask &= mask - 1){
+                list.add(Piece.of(Integer.numberOfTrailingZeros(mask)));
+            }
+            this.view = view = Collections.unmodifiableList(list);
+        }
+        return view;
+    }
+    public int getPieceMask(){
+        return pieces;
+    }
+    public boolean hasPieces(){
+        return pieces != 0;
     }
 
     void initialize(Piece[] pieces){
-        this.skip    = 0;
-        this.pieces = new LinkedList<Piece>();
-        Collections.addAll(this.pieces,pieces);
+        this.skip   = 0;
+        setPieces(Piece.maskOf(Arrays.asList(pieces)));
+    }
+    private void setPieces(int mask){
+        this.pieces = mask;
+        this.score  = Piece.countTiles(mask);
+        this.view   = null;
     }
 
     public boolean isValid(Piece action){
-        return this.pieces.contains(action);// TODO check if correct equals ? hashCode?
+        return (this.pieces & 1 << action.ordinal()) != 0;
+    }
+    public boolean isValid(Move action){
+        return isValid(action.getPiece());
     }
     
     @Override
@@ -97,10 +148,7 @@ public class Player implements Externalizable {
         out.writeUTF(name);
         out.writeInt(win);
         out.writeInt(skip);
-        out.writeInt(pieces.size());
-        for(Piece p:pieces){
-            out.writeObject(p);
-        }
+        out.writeInt(pieces);
     }
     
     @Override
@@ -108,13 +156,7 @@ public class Player implements Externalizable {
         this.name   = in.readUTF();
         this.win    = in.readInt();
         this.skip   = in.readInt();
-        
-        int size = in.readInt();
-        this.pieces = new LinkedList<Piece>();
-        while(size > 0){
-            size--;
-            this.pieces.add((Piece) in.readObject());
-        }
+        setPieces(in.readInt());
         
         this.strategy = new Strategy() {
             @Override
@@ -123,13 +165,13 @@ public class Player implements Externalizable {
             public GameListener unregister() { return null; }
             
             @Override
-            public Piece action(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+            public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
                 return null;
             }
         };
     }
 	
-	void plays(Piece action) {
-        this.pieces.remove(action);
+	void plays(Move action) {
+        setPieces(this.pieces & ~(1 << action.getPiece().ordinal()));
 	}
 }
@@ -74,7 +74,7 @@ public class Point implements Serializable, Cloneable {
 	}
 	@Override
 	public int hashCode(){
-		return Long.valueOf(((long) x) << 32 | y).hashCode();
+		return Long.hashCode(((long) x) << 32 | y);
 	}
 	@Override
 	public String toString(){
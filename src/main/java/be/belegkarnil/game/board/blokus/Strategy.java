@@ -22,14 +22,38 @@ package be.belegkarnil.game.board.blokus;
 import be.belegkarnil.game.board.blokus.event.GameListener;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This interface is a core component of the Game and represents {@link Strategy} used by {@link Player}s.
+ * An implementation overrides either {@link #play} (preferred, it returns an immutable {@link Move}) or the
+ * legacy {@link #action}, each one being bridged to the other (a strategy overriding none of them fails
+ * with an {@link UnsupportedOperationException} when it plays). A strategy that needs its time budget overrides
+ * the variant of {@link #play} with a deadline instead, which the other variants call without deadline.
  *
  * @author Belegkarnil
  */
 public interface Strategy {
     public GameListener register();
     public GameListener unregister();
-    public Piece action(final List<Piece> pieces, final Board board, Board.Cell type, final List<Piece> opponent);
+    public default Piece action(final List<Piece> pieces, final Board board, Board.Cell type, final List<Piece> opponent){
+        final Move move = play(pieces, board, type, opponent);
+        return move == null ? null : move.toPiece();
+    }
+    public default Move play(final List<Piece> pieces, final Board board, Board.Cell type, final List<Piece> opponent){
+        if(StrategyBridge.overridesPlayWithDeadline(getClass())){
+            // no deadline, but one that can still be compared with System.nanoTime() without overflow
+            return play(pieces, board, type, opponent, System.nanoTime() + TimeUnit.DAYS.toNanos(1));
+        }
+        if(!StrategyBridge.overridesAction(getClass()))
+            throw new UnsupportedOperationException(getClass().getName()+" overrides neither play nor action");
+        return Move.of(action(pieces, board, type, opponent));
+    }
+    /**
+     * Chooses a move before the deadline, a {@link System#nanoTime} value after which the turn is skipped
+     * (or, with a {@link TimeControl}, the share of the clock suggested to the move).
+     */
+    public default Move play(final List<Piece> pieces, final Board board, Board.Cell type, final List<Piece> opponent, long deadline){
+        return play(pieces, board, type, opponent);
+    }
 }
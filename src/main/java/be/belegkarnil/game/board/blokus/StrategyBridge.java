@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import java.util.List;
+
+/**
+ * This class tells, once per class, which of the legacy {@link Strategy#action} and of the variant of
+ * {@link Strategy#play} with a deadline a {@link Strategy} implements, for the defaults that bridge them.
+ * An interface cannot hold a private cache.
+ *
+ * @author Belegkarnil
+ */
+final class StrategyBridge {
+    private static final ClassValue<Boolean> OVERRIDES_ACTION = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> klass) {
+            return overrides(klass, "action", List.class, Board.class, Board.Cell.class, List.class);
+        }
+    };
+    private static final ClassValue<Boolean> OVERRIDES_DEADLINE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> klass) {
+            return overrides(klass, "play", List.class, Board.class, Board.Cell.class, List.class, long.class);
+        }
+    };
+    
+    private StrategyBridge(){}
+    
+    static boolean overridesAction(Class<?> klass){
+        return OVERRIDES_ACTION.get(klass);
+    }
+    static boolean overridesPlayWithDeadline(Class<?> klass){
+        return OVERRIDES_DEADLINE.get(klass);
+    }
+    private static boolean overrides(Class<?> klass, String name, Class<?>... parameters){
+        try{
+            return klass.getMethod(name, parameters).getDeclaringClass() != Strategy.class;
+        }catch(NoSuchMethodException e){
+            return false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * This class lists the {@link Strategy} classes with a default constructor that are available in a package
+ * (and its sub-packages) of the class path. It does not depend on the GUI so that headless tools, such as
+ * the {@link Tournament}, can discover strategies: scanning a package that holds no GUI class loads no Swing class.
+ *
+ * @author Belegkarnil
+ */
+public class StrategyLoader {
+    public static final String STRATEGY_PACKAGE = "be.belegkarnil.game.board.blokus.strategy";
+    
+    private StrategyLoader(){}
+    
+    public static List<Class<Strategy>> findStrategies(String packageName) throws IOException, ClassNotFoundException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Enumeration<URL> resources = classLoader.getResources(packageName.replace(".","/"));
+        List<File> dirs = new ArrayList<File>();
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            dirs.add(new File(resource.getFile()));
+        }
+        ArrayList<Class> classes = new ArrayList<Class>();
+        for (File directory : dirs) {
+            classes.addAll(findClasses(directory, packageName, classLoader));
+        }
+        List<Class<Strategy>> strategies = new LinkedList<Class<Strategy>>();
+        for(Class<?> klass:classes) {
+            if(isStrategy(klass) && hasDefaultConstructor(klass)){
+                strategies.add((Class<Strategy>) klass);
+            }
+        }
+        return strategies;
+    }
+    /**
+     * Tells whether the class is a concrete {@link Strategy}, directly or through a super class or a
+     * sub-interface such as {@link AnytimeStrategy}.
+     */
+    public static boolean isStrategy(Class<?> klass){
+        return Strategy.class.isAssignableFrom(klass) && !klass.isInterface() && !Modifier.isAbstract(klass.getModifiers());
+    }
+    /**
+     * Tells whether the class has a public constructor without parameter, without instantiating it (a strategy may
+     * open files or allocate large tables when it is created).
+     */
+    public static boolean hasDefaultConstructor(Class klass){
+        try {
+            Constructor<?> constructor = klass.getConstructor();
+            return Modifier.isPublic(klass.getModifiers()) && Modifier.isPublic(constructor.getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+    
+    private static List<Class> findClasses(File directory, String packageName, ClassLoader classLoader) throws ClassNotFoundException {
+        List<Class> classes = new ArrayList<Class>();
+        if (!directory.exists()) {
+            return classes;
+        }
+        File[] files = directory.listFiles();
+        for (File file : files) {
+            if (file.isDirectory()) {
+                assert !file.getName().contains(".");
+                classes.addAll(findClasses(file, packageName + "." + file.getName(), classLoader));
+            } else if (file.getName().endsWith(".class")) {
+                // Loaded but not initialized: only the strategies are instantiated
+                classes.add(Class.forName(packageName + '.' + file.getName().substring(0, file.getName().length() - 6), false, classLoader));
+            }
+        }
+        return classes;
+    }
+}
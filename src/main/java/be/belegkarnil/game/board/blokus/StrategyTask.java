@@ -19,43 +19,147 @@
  */
 package be.belegkarnil.game.board.blokus;
 
+import be.belegkarnil.game.board.blokus.event.SkipEvent;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is a core class of the Game and represents the decision made by a {@link Strategy}.
- * The strategy can choose a {@link Piece} to play, but within a limited time. This class is a thread
- * ensuring that a strategy returns a {@link Piece} or null at timeout.
+ * The strategy can choose a {@link Move} to play, but within a limited time. This class is a thread
+ * task, run by the executor of the {@link Game}, ensuring that a strategy returns a {@link Move} or null at timeout.
+ * It also measures the CPU time and the allocated bytes of the strategy with the {@link ThreadMXBean}, which
+ * only supports platform threads (the measures are {@link SkipEvent#NO_MEASURE} on virtual threads).
  *
  * @author Belegkarnil
  */
-class StrategyTask extends Thread{
+class StrategyTask implements Runnable{
 	private final Strategy strategy;
 	private final List<Piece> current,opponent;
 	private final Board board;
 	private final Board.Cell type;
-	private Piece action;
+	private final long deadline;
+	private Move action, published;
+	
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+	private Thread thread;
+	private boolean started;
+	private long cpuStart, bytesStart, cpuTime, allocatedBytes;
 	
 	private final Object lock = new Object();
+	private final CountDownLatch done = new CountDownLatch(1);
 	
-	public StrategyTask(Strategy strategy, List<Piece> current,List<Piece> opponent,Board board, Board.Cell type){
+	public StrategyTask(Strategy strategy, List<Piece> current,List<Piece> opponent,Board board, Board.Cell type, long deadline){
 		this.strategy	= strategy;
 		this.current	= current;
 		this.opponent	= opponent;
 		this.board		= board;
 		this.type		= type;
+		this.deadline	= deadline;
 		this.action		= null;
+		this.published	= null;
+		this.thread		= null;
+		this.started	= false;
+		this.cpuTime	= SkipEvent.NO_MEASURE;
+		this.allocatedBytes = SkipEvent.NO_MEASURE;
 	}
 	
 	@Override
 	public void run(){
-		final Piece action = strategy.action(current,board,type,opponent);
-		this.action = action;
+		final Thread thread = Thread.currentThread();
+		synchronized (lock) {
+			this.thread		= thread;
+			this.started	= true;
+			this.cpuStart	= cpuTime(thread);
+			this.bytesStart	= allocatedBytes(thread);
+		}
+		try{
+			final Move action;
+			if(strategy instanceof AnytimeStrategy){
+				action = ((AnytimeStrategy) strategy).play(current,board,type,opponent,deadline,this::publish);
+			}else{
+				action = strategy.play(current,board,type,opponent,deadline);
+			}
+			synchronized (lock) {
+				this.action = action;
+			}
+		}finally{
+			synchronized (lock) {
+				this.cpuTime		= measure(cpuTime(thread), cpuStart);
+				this.allocatedBytes	= measure(allocatedBytes(thread), bytesStart);
+				this.thread			= null;
+			}
+			done.countDown();
+		}
+	}
+	
+	private static long cpuTime(Thread thread){
+		if(thread.isVirtual() || !THREADS.isThreadCpuTimeSupported()) return SkipEvent.NO_MEASURE;
+		return THREADS.getThreadCpuTime(thread.threadId());
+	}
+	private static long allocatedBytes(Thread thread){
+		if(thread.isVirtual() || !(THREADS instanceof com.sun.management.ThreadMXBean)) return SkipEvent.NO_MEASURE;
+		return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(thread.threadId());
+	}
+	private static long measure(long value, long start){
+		if(value < 0 || start < 0) return SkipEvent.NO_MEASURE;
+		return value - start;
+	}
+	/**
+	 * Returns the CPU time used by the strategy so far in nanoseconds, or {@link SkipEvent#NO_MEASURE}.
+	 */
+	public long getCpuTime(){
+		synchronized (lock) {
+			return thread == null ? cpuTime : measure(cpuTime(thread), cpuStart);
+		}
+	}
+	/**
+	 * Returns the bytes allocated by the strategy so far, or {@link SkipEvent#NO_MEASURE}.
+	 */
+	public long getAllocatedBytes(){
+		synchronized (lock) {
+			return thread == null ? allocatedBytes : measure(allocatedBytes(thread), bytesStart);
+		}
+	}
+	/**
+	 * Tells whether the strategy has been called, i.e. whether the task is not still queued in the executor
+	 * (a task cancelled in the queue never starts).
+	 */
+	public boolean hasStarted(){
+		synchronized (lock) {
+			return started;
+		}
+	}
+	/**
+	 * Waits at most the given time for the strategy to return (or throw) and tells whether it did.
+	 * A task that was cancelled before it started never terminates (see {@link #hasStarted()}).
+	 */
+	public boolean awaitTermination(long millis){
+		try{
+			return done.await(millis, TimeUnit.MILLISECONDS);
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	private void publish(Move move){
+		synchronized (lock) {
+			this.published = move;
+		}
+	}
+	/**
+	 * Returns the last move published by an {@link AnytimeStrategy}, or null.
+	 */
+	public Move getPublished(){
 		synchronized (lock) {
-			this.action = action;
+			return published;
 		}
 	}
-	public Piece getAction(){
-		final Piece action;
+	public Move getAction(){
+		final Move action;
 		synchronized (lock) {
 			action = this.action;
 		}
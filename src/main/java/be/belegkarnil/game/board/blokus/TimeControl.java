@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a core class of the Game and represents a chess clock: each player has a budget of time for a
+ * whole round, possibly increased by an increment after each move played in time (Fischer), and each move can
+ * start with a delay during which the clock does not run (simple delay). A player whose clock runs out is
+ * skipped, and its clock restarts from the increment (the delay and increments still let it answer later turns).
+ * <p>
+ * With a time control, the deadline given to a {@link Strategy} is the share of its clock suggested by
+ * {@link #allot}; the turn is only skipped when the clock runs out. An {@link AnytimeStrategy} that already
+ * published a move is stopped at the suggested deadline.
+ *
+ * @author Belegkarnil
+ */
+public final class TimeControl implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1234567L;
+    private final long budget, increment, delay;// in nanoseconds
+    
+    public TimeControl(long budget, long increment, long delay, TimeUnit unit){
+        if(budget <= 0 || increment < 0 || delay < 0) throw new IllegalArgumentException("The budget must be positive, the increment and the delay must not be negative");
+        this.budget     = unit.toNanos(budget);
+        this.increment  = unit.toNanos(increment);
+        this.delay      = unit.toNanos(delay);
+    }
+    public TimeControl(long budget, TimeUnit unit){
+        this(budget, 0, 0, unit);
+    }
+    
+    public long getBudget(){
+        return budget;
+    }
+    public long getIncrement(){
+        return increment;
+    }
+    public long getDelay(){
+        return delay;
+    }
+    
+    /**
+     * Returns the time, in nanoseconds, suggested for a move of a player that has the given time left on its
+     * clock and the given number of pieces: the remaining time is shared between the expected moves (half of the
+     * pieces, as few games see a player place them all, so that the middle game gets more than the opening),
+     * plus the delay and the increment, which are not lost.
+     */
+    public long allot(long remaining, int pieces){
+        final int moves = Math.max(1, (pieces + 1) / 2);
+        return Math.max(0, remaining) / moves + delay + increment;
+    }
+    /**
+     * Returns the clock of a player after a move that lasted the given time (both in nanoseconds). After a flag
+     * fall, the clock only holds the increment, so that a control without delay does not forfeit the next turns.
+     */
+    public long charge(long remaining, long elapsed){
+        remaining -= Math.max(0, elapsed - delay);
+        if(remaining <= 0) return increment;
+        return remaining + increment;
+    }
+    
+    /**
+     * Parses a time control as {@code budget[+increment][/delay]} where each time is parsed by
+     * {@link #parseDuration} (e.g. {@code 60+1}, {@code 10s/200ms}).
+     */
+    public static TimeControl parse(String text){
+        long increment = 0, delay = 0;
+        int index = text.indexOf('/');
+        if(index >= 0){
+            delay = parseDuration(text.substring(index + 1));
+            text = text.substring(0, index);
+        }
+        index = text.indexOf('+');
+        if(index >= 0){
+            increment = parseDuration(text.substring(index + 1));
+            text = text.substring(0, index);
+        }
+        return new TimeControl(parseDuration(text), increment, delay, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Parses a duration in seconds, or in milliseconds with the {@code ms} suffix, and returns it in nanoseconds.
+     */
+    public static long parseDuration(String text){
+        if(text.endsWith("ms")) return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(text.substring(0, text.length() - 2)));
+        if(text.endsWith("s")) text = text.substring(0, text.length() - 1);
+        return TimeUnit.SECONDS.toNanos(Long.parseLong(text));
+    }
+    
+    @Override
+    public String toString(){
+        return getClass().getSimpleName()+"[budget="+TimeUnit.NANOSECONDS.toMillis(budget)+"ms,increment="
+            +TimeUnit.NANOSECONDS.toMillis(increment)+"ms,delay="+TimeUnit.NANOSECONDS.toMillis(delay)+"ms]";
+    }
+}
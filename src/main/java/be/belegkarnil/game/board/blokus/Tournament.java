@@ -0,0 +1,407 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus;
+
+import be.belegkarnil.game.board.blokus.strategy.HMIStrategy;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class is a main class that plays a tournament between {@link Strategy} classes without GUI. Every pairing
+ * is played with both colours, either as a round-robin (every strategy meets every other one) or as a Swiss
+ * system (a few rounds, each one pairing strategies with similar points that have not met yet).
+ * <p>
+ * Games are dispatched to a fixed pool of threads (a game blocks its thread while it waits for the strategies),
+ * the longest expected games first: a game is expected to last as long as an average move of each of its
+ * strategies, measured once on a few positions of a sample game. As strategies can differ by orders of magnitude
+ * in speed, a static partitioning of the games would leave cores idle at the end.
+ * <p>
+ * Usage: {@code Tournament [-swiss [rounds]] [-repeat n] [-threads n] [-timeout t] [-clock c] [-rounds n] [-skip n] [-adjudicate] [Strategy...]}
+ * where strategies, the timeout, the clock and the adjudication are given as in {@link BatchRunner}. Without any strategy, every strategy with a default
+ * constructor of the {@link StrategyLoader#STRATEGY_PACKAGE} package but the interactive {@link HMIStrategy} plays.
+ *
+ * @author Belegkarnil
+ */
+public class Tournament {
+    public enum Format { ROUND_ROBIN, SWISS }
+    // the costs are measured on CALIBRATION_SAMPLES positions, CALIBRATION_SPACING turns apart, of a random game
+    private static final int CALIBRATION_SAMPLES = 4, CALIBRATION_SPACING = 8;
+    private static final long CALIBRATION_SEED = 0xB10C05L;
+    
+    private final List<Class<? extends Strategy>> strategies;
+    private final Format format;
+    private final int numRounds, threads, numWinningRounds, skipLimit;
+    private final long timeout;// in nanoseconds
+    private TimeControl timeControl;
+    private boolean adjudication;
+    private final Standing[] standings;
+    private final long[] costs;
+    private final boolean[][] met;
+    private final boolean[] byes;
+    private int failed;
+    
+    /**
+     * The number of rounds is the number of repetitions of the round-robin or the number of Swiss rounds
+     * (0 for the default, the ceiling of the base 2 logarithm of the number of strategies). The timeout is in nanoseconds.
+     */
+    public Tournament(List<Class<? extends Strategy>> strategies, Format format, int numRounds, int threads, long timeout, int numWinningRounds, int skipLimit){
+        if(strategies.size() < 2) throw new IllegalArgumentException("A tournament needs at least 2 strategies");
+        this.strategies         = new ArrayList<Class<? extends Strategy>>(strategies);
+        this.format             = format;
+        this.numRounds          = numRounds > 0 ? numRounds : format == Format.SWISS ? 32 - Integer.numberOfLeadingZeros(strategies.size() - 1) : 1;
+        this.threads            = threads;
+        this.timeout            = timeout;
+        this.numWinningRounds   = numWinningRounds;
+        this.skipLimit          = skipLimit;
+        this.standings          = new Standing[strategies.size()];
+        this.costs              = new long[strategies.size()];
+        this.met                = new boolean[strategies.size()][strategies.size()];
+        this.byes               = new boolean[strategies.size()];
+        for(int i=0; i<standings.length; i++) standings[i] = new Standing(this.strategies.get(i));
+    }
+    
+    public void setTimeControl(TimeControl timeControl){
+        this.timeControl = timeControl;
+    }
+    public void setAdjudication(boolean adjudication){
+        this.adjudication = adjudication;
+    }
+    
+    /**
+     * This class holds the results of a strategy. A won game (or a bye in a Swiss tournament) is worth one point.
+     */
+    public static final class Standing {
+        public final Class<? extends Strategy> strategy;
+        private int games, wins, points, roundsWon, roundsLost;
+        private long score;
+        
+        private Standing(Class<? extends Strategy> strategy){
+            this.strategy = strategy;
+        }
+        public int countGames(){
+            return games;
+        }
+        public int countWins(){
+            return wins;
+        }
+        public int countPoints(){
+            return points;
+        }
+        public int countRoundsWon(){
+            return roundsWon;
+        }
+        public int countRoundsLost(){
+            return roundsLost;
+        }
+        public double getMeanScore(){
+            return (double) score / Math.max(1, roundsWon + roundsLost);
+        }
+    }
+    private static final Comparator<Standing> RANKING = Comparator.comparingInt(Standing::countPoints).reversed()
+        .thenComparing(Comparator.comparingInt((Standing s) -> s.roundsWon - s.roundsLost).reversed())
+        .thenComparingDouble(Standing::getMeanScore);
+    
+    public List<Standing> getStandings(){
+        synchronized (standings) {
+            final List<Standing> ranking = new ArrayList<Standing>(Arrays.asList(standings));
+            ranking.sort(RANKING);
+            return ranking;
+        }
+    }
+    
+    public void run(PrintStream out) throws InterruptedException {
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try{
+            calibrate();
+            for(int round=0; round<numRounds; round++){
+                final List<int[]> pairings = format == Format.SWISS ? pairSwiss(out) : pairRoundRobin();
+                play(pool, pairings);
+                if(format == Format.SWISS){
+                    out.println("After Swiss round "+(round + 1)+"/"+numRounds);
+                    print(out);
+                }
+            }
+        }finally{
+            pool.shutdownNow();
+        }
+        if(format == Format.ROUND_ROBIN) print(out);
+    }
+    
+    /**
+     * Measures the moves of each strategy on a few positions of a sample game, the expected cost of its games: the
+     * average move. Each move is timed as a turn of a game: a strategy that overruns the timeout (or its clock) is
+     * interrupted and costs the timeout.
+     */
+    private void calibrate() throws InterruptedException {
+        final Player first = new Player("first", null), second = new Player("second", null);
+        final List<Board> positions = new ArrayList<Board>(CALIBRATION_SAMPLES);
+        final List<int[]> pieces   = new ArrayList<int[]>(CALIBRATION_SAMPLES);
+        sample(first, second, positions, pieces);
+        // one thread per strategy, so that a strategy ignoring the interruption does not delay the next ones
+        final ExecutorService executor = Executors.newCachedThreadPool(task -> {
+            final Thread thread = new Thread(task, "BelegBlokus-calibration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try{
+            for(int i=0; i<strategies.size(); i++){
+                Strategy strategy = null;
+                long total = 0;
+                try{
+                    strategy = strategies.get(i).getConstructor().newInstance();
+                    strategy.register();
+                    for(int n=0; n<positions.size(); n++){
+                        total += time(executor, strategy, positions.get(n), pieces.get(n));
+                    }
+                }catch(ReflectiveOperationException | RuntimeException e){
+                    // the games of the strategy will report the problem
+                }finally{
+                    if(strategy != null) strategy.unregister();
+                }
+                costs[i] = total / positions.size();
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+    // Plays a seeded random game and keeps a position every few turns, always with the first player to move, so
+    // that every strategy is measured on the same positions; pieces[n] holds the remaining pieces of both players
+    private void sample(Player first, Player second, List<Board> positions, List<int[]> pieces){
+        final Board board = new Board();
+        board.initialize(first, second);
+        final GameSimulator.Policy policy = GameSimulator.random(new SplittableRandom(CALIBRATION_SEED));
+        final int[] masks = { GameSimulator.ALL_PIECES, GameSimulator.ALL_PIECES };
+        int passes = 0;
+        for(int turn=0; positions.size() < CALIBRATION_SAMPLES && passes < 2; turn++){
+            final int player = turn & 1;
+            final Board.Cell type = player == 0 ? Board.Cell.FIRST_PLAYER : Board.Cell.SECOND_PLAYER;
+            if(turn % CALIBRATION_SPACING == 0){
+                positions.add(board.snapshot());
+                pieces.add(masks.clone());
+            }
+            final int move = policy.choose(board, type, masks[player], masks[1 - player]);
+            if(move == Move.NO_MOVE){
+                passes++;
+            }else{
+                passes = 0;
+                board.apply(move, type);
+                masks[player] &= ~(1 << Move.pieceOf(move));
+            }
+        }
+    }
+    // Times one move of the first player, as Game does
+    private long time(ExecutorService executor, Strategy strategy, Board position, int[] pieces) throws InterruptedException {
+        final long start = System.nanoTime();
+        final long deadline, limit;// suggested to the strategy and enforced, as in Game
+        if(timeControl == null){
+            deadline = limit = start + timeout;
+        }else{
+            limit       = start + timeControl.getDelay() + timeControl.getBudget();
+            deadline    = Math.min(limit, start + timeControl.allot(timeControl.getBudget(), Integer.bitCount(pieces[0])));
+        }
+        Future<?> future = null;
+        try{
+            future = executor.submit(new StrategyTask(strategy, piecesOf(pieces[0]), piecesOf(pieces[1]), position, Board.Cell.FIRST_PLAYER, deadline));
+            future.get(limit - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }catch(ExecutionException | TimeoutException | RuntimeException e){
+            // the games of the strategy will report the problem
+        }finally{
+            if(future != null) future.cancel(true);
+        }
+        return Math.min(System.nanoTime(), limit) - start;
+    }
+    private static List<Piece> piecesOf(int mask){
+        final List<Piece> pieces = new ArrayList<Piece>(Integer.bitCount(mask));
+        for(; mask != 0; mask &= mask - 1){
+            pieces.add(Piece.of(Integer.numberOfTrailingZeros(mask)));
+        }
+        return Collections.unmodifiableList(pieces);
+    }
+    private List<int[]> pairRoundRobin(){
+        final List<int[]> pairings = new ArrayList<int[]>();
+        for(int i=0; i<strategies.size(); i++){
+            for(int j=i+1; j<strategies.size(); j++){
+                pairings.add(new int[]{ i, j });
+            }
+        }
+        return pairings;
+    }
+    /**
+     * Pairs each strategy, from the best ranked one, with the next best ranked one it has not met yet (or the
+     * next one if it has met them all). With an odd number of strategies, the lowest ranked one without a bye
+     * yet gets a bye (once all of them had one, the byes start over).
+     */
+    private List<int[]> pairSwiss(PrintStream out){
+        final List<Standing> ranking = getStandings();
+        final int[] order = new int[ranking.size()];
+        for(int i=0; i<order.length; i++) order[i] = indexOf(ranking.get(i));
+        final boolean[] paired = new boolean[order.length];
+        final List<int[]> pairings = new ArrayList<int[]>();
+        if((order.length & 1) == 1){
+            int last = order.length - 1;
+            while(last >= 0 && byes[order[last]]) last--;
+            if(last < 0){
+                // every strategy has had a bye: a new cycle starts from the lowest ranked one
+                Arrays.fill(byes, false);
+                last = order.length - 1;
+            }
+            final int bye = order[last];
+            paired[last] = byes[bye] = true;
+            synchronized (standings) {
+                standings[bye].points++;
+            }
+            out.println("Bye for "+strategies.get(bye).getSimpleName());
+        }
+        for(int i=0; i<order.length; i++){
+            if(paired[i]) continue;
+            int opponent = -1;
+            for(int j=i+1; j<order.length; j++){
+                if(paired[j]) continue;
+                if(opponent < 0) opponent = j;
+                if(!met[order[i]][order[j]]){
+                    opponent = j;
+                    break;
+                }
+            }
+            if(opponent < 0) break;
+            paired[i] = paired[opponent] = true;
+            pairings.add(new int[]{ order[i], order[opponent] });
+        }
+        return pairings;
+    }
+    private int indexOf(Standing standing){
+        for(int i=0; i<standings.length; i++){
+            if(standings[i] == standing) return i;
+        }
+        return -1;
+    }
+    
+    private void play(ExecutorService pool, List<int[]> pairings) throws InterruptedException {
+        final List<int[]> games = new ArrayList<int[]>();
+        for(int[] pairing:pairings){
+            met[pairing[0]][pairing[1]] = met[pairing[1]][pairing[0]] = true;
+            games.add(new int[]{ pairing[0], pairing[1] });
+            games.add(new int[]{ pairing[1], pairing[0] });
+        }
+        // Longest processing time first
+        games.sort(Comparator.comparingLong((int[] game) -> costs[game[0]] + costs[game[1]]).reversed());
+        final List<Future<?>> tasks = new ArrayList<Future<?>>(games.size());
+        for(int[] game:games){
+            tasks.add(pool.submit(() -> play(game[0], game[1])));
+        }
+        for(Future<?> task:tasks){
+            try{
+                task.get();
+            }catch(ExecutionException e){
+                synchronized (standings) {
+                    failed++;
+                }
+            }
+        }
+    }
+    private void play(int first, int second){
+        final BatchRunner.Result result;
+        try{
+            result = BatchRunner.play(strategies.get(first), strategies.get(second), false, timeout, numWinningRounds, skipLimit, timeControl, adjudication);
+        }catch(ReflectiveOperationException | RuntimeException e){
+            synchronized (standings) {
+                failed++;
+            }
+            return;
+        }
+        final int[] players = new int[]{ first, second };
+        synchronized (standings) {
+            for(int i=0; i<2; i++){
+                final Standing standing = standings[players[i]];
+                standing.games++;
+                standing.roundsWon  += result.rounds[i];
+                standing.roundsLost += result.rounds[1 - i];
+                standing.score      += result.scores[i];
+            }
+            standings[players[result.winner]].wins++;
+            standings[players[result.winner]].points++;
+        }
+    }
+    
+    public void print(PrintStream out){
+        final List<Standing> ranking = getStandings();
+        out.println(String.format(Locale.ROOT, "%4s %-24s %6s %6s %6s %7s %8s", "Rank", "Strategy", "Games", "Wins", "Points", "Rounds", "Score"));
+        for(int i=0; i<ranking.size(); i++){
+            final Standing standing = ranking.get(i);
+            out.println(String.format(Locale.ROOT, "%4d %-24s %6d %6d %6d %+7d %8.2f", i + 1, standing.strategy.getSimpleName(),
+                standing.games, standing.wins, standing.points, standing.roundsWon - standing.roundsLost, standing.getMeanScore()));
+        }
+        synchronized (standings) {
+            if(failed > 0) out.println(failed+" game(s) failed");
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Format format = Format.ROUND_ROBIN;
+        int numRounds = 0, threads = Runtime.getRuntime().availableProcessors();
+        long timeout = TimeUnit.SECONDS.toNanos(Game.DEFAULT_TIMEOUT);
+        int numWinningRounds = Game.DEFAULT_NUMBER_OF_WINNING_ROUNDS, skipLimit = Game.DEFAULT_SKIP_LIMIT;
+        TimeControl timeControl = null;
+        boolean adjudication = false;
+        final List<Class<? extends Strategy>> strategies = new ArrayList<Class<? extends Strategy>>();
+        for(int i=0; i<args.length; i++){
+            switch(args[i]){
+                case "-swiss":
+                    format = Format.SWISS;
+                    if(i + 1 < args.length && args[i + 1].matches("\\d+")) numRounds = Integer.parseInt(args[++i]);
+                    break;
+                case "-repeat":     numRounds           = Integer.parseInt(args[++i]); break;
+                case "-threads":    threads             = Integer.parseInt(args[++i]); break;
+                case "-timeout":    timeout             = TimeControl.parseDuration(args[++i]); break;
+                case "-clock":      timeControl         = TimeControl.parse(args[++i]); break;
+                case "-rounds":     numWinningRounds    = Integer.parseInt(args[++i]); break;
+                case "-skip":       skipLimit           = Integer.parseInt(args[++i]); break;
+                case "-adjudicate": adjudication        = true; break;
+                default:            strategies.add(BatchRunner.findStrategy(args[i]));
+            }
+        }
+        if(strategies.isEmpty()){
+            for(Class<Strategy> strategy:StrategyLoader.findStrategies(StrategyLoader.STRATEGY_PACKAGE)){
+                if(! HMIStrategy.class.equals(strategy)) strategies.add(strategy);
+            }
+        }
+        if(strategies.size() < 2){
+            System.err.println("Usage: Tournament [-swiss [rounds]] [-repeat n] [-threads n] [-timeout t] [-clock c] [-rounds n] [-skip n] [-adjudicate] [Strategy...]");
+            System.exit(1);
+        }
+        final Tournament tournament = new Tournament(strategies, format, numRounds, threads, timeout, numWinningRounds, skipLimit);
+        tournament.setTimeControl(timeControl);
+        tournament.setAdjudication(adjudication);
+        tournament.run(System.out);
+    }
+}
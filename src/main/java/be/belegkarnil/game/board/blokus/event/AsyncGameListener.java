@@ -0,0 +1,265 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus.event;
+
+import java.util.EventObject;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class is a {@link GameListener} that forwards the events to another listener on its own consumer thread
+ * (a daemon platform thread or a virtual thread), through a bounded ring buffer. The game thread only waits
+ * when the buffer is full and the {@link OverflowPolicy} is {@link OverflowPolicy#BLOCK}, so a slow listener no
+ * longer slows the game down. The events are delivered in order, except the ones dropped by the policy.
+ * As the delivery is delayed, the listener sees the current state of the players, not the one of the event.
+ * <p>
+ * An exception of the listener does not stop the delivery of the next events: the first one (with the next ones
+ * suppressed) is thrown by the next {@link #flush()} or {@link #close()}, or else by the consumer thread when it
+ * stops, to its uncaught exception handler.
+ *
+ * @author Belegkarnil
+ */
+public class AsyncGameListener implements GameListener {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    
+    /**
+     * What happens when an event is fired while the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** The game waits for the listener: no event is lost. */
+        BLOCK,
+        /** The oldest pending event is dropped. */
+        DROP_OLDEST,
+        /**
+         * The oldest pending turn event (started or ended) is dropped, so that the listener skips turns but never
+         * misses a game, round or skip event (the game waits if the buffer only holds such events).
+         */
+        COALESCE
+    }
+    
+    private enum Kind { GAME_STARTED, GAME_ENDED, ROUND_STARTED, ROUND_ENDED, TURN_STARTED, TURN_ENDED,
+        NO_ACTION, INVALID_PIECE, INVALID_POSITION, TIMEOUT, EXCEPTION }
+    
+    private final GameListener listener;
+    private final OverflowPolicy policy;
+    private final Kind[] kinds;
+    private final EventObject[] events;
+    private final ReentrantLock lock;
+    private final Condition notEmpty, notFull;
+    private final Thread consumer;
+    private int head, count, dropped;
+    private RuntimeException failure;// thrown by the listener, not reported yet
+    private boolean closed, delivering;
+    
+    public AsyncGameListener(GameListener listener){
+        this(listener, DEFAULT_CAPACITY, OverflowPolicy.BLOCK, false);
+    }
+    public AsyncGameListener(GameListener listener, int capacity, OverflowPolicy policy, boolean virtual){
+        if(capacity < 1) throw new IllegalArgumentException("The capacity must be positive");
+        this.listener   = listener;
+        this.policy     = policy;
+        this.kinds      = new Kind[capacity];
+        this.events     = new EventObject[capacity];
+        this.lock       = new ReentrantLock();
+        this.notEmpty   = lock.newCondition();
+        this.notFull    = lock.newCondition();
+        this.head       = 0;
+        this.count      = 0;
+        this.dropped    = 0;
+        this.failure    = null;
+        this.closed     = false;
+        this.delivering = false;
+        final String name = "BelegBlokus-listener-"+THREAD_COUNT.incrementAndGet();
+        this.consumer   = virtual ? Thread.ofVirtual().name(name).unstarted(this::consume)
+                                  : Thread.ofPlatform().name(name).daemon(true).unstarted(this::consume);
+        this.consumer.start();
+    }
+    
+    public GameListener getListener(){
+        return listener;
+    }
+    public OverflowPolicy getPolicy(){
+        return policy;
+    }
+    /**
+     * Returns the number of events dropped so far by the {@link OverflowPolicy}.
+     */
+    public int countDropped(){
+        lock.lock();
+        try{
+            return dropped;
+        }finally{
+            lock.unlock();
+        }
+    }
+    /**
+     * Stops the consumer thread once the pending events are delivered. Later events are ignored.
+     * Throws the exception of the listener on the events delivered so far, if any.
+     */
+    public void close(){
+        lock.lock();
+        try{
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+            report();
+        }finally{
+            lock.unlock();
+        }
+    }
+    /**
+     * Waits until the pending events are delivered (or the thread is interrupted), then throws the exception of the
+     * listener on these events, if any.
+     */
+    public void flush() throws InterruptedException {
+        lock.lockInterruptibly();
+        try{
+            while(count > 0 || delivering) notFull.await();
+            report();
+        }finally{
+            lock.unlock();
+        }
+    }
+    // throws the failure once, under the lock
+    private void report(){
+        final RuntimeException failure = this.failure;
+        this.failure = null;
+        if(failure != null) throw failure;
+    }
+    
+    private void offer(Kind kind, EventObject event){
+        lock.lock();
+        try{
+            while(count == kinds.length && !closed){
+                if(policy == OverflowPolicy.DROP_OLDEST){
+                    remove(0);
+                }else if(policy != OverflowPolicy.COALESCE || !removeTurn()){
+                    notFull.awaitUninterruptibly();
+                }
+            }
+            if(closed) return;
+            final int tail = (head + count) % kinds.length;
+            kinds[tail]     = kind;
+            events[tail]    = event;
+            count++;
+            notEmpty.signal();
+        }finally{
+            lock.unlock();
+        }
+    }
+    private boolean removeTurn(){
+        for(int i=0; i<count; i++){
+            final Kind kind = kinds[(head + i) % kinds.length];
+            if(kind == Kind.TURN_STARTED || kind == Kind.TURN_ENDED){
+                remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+    // removes the i-th pending event, shifting the older ones
+    private void remove(int i){
+        for(int j=i; j>0; j--){
+            final int to = (head + j) % kinds.length, from = (head + j - 1) % kinds.length;
+            kinds[to]   = kinds[from];
+            events[to]  = events[from];
+        }
+        kinds[head]     = null;
+        events[head]    = null;
+        head = (head + 1) % kinds.length;
+        count--;
+        dropped++;
+    }
+    
+    private void consume(){
+        Kind kind;
+        EventObject event;
+        while(true){
+            lock.lock();
+            try{
+                while(count == 0){
+                    if(closed){
+                        report();
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                kind            = kinds[head];
+                event           = events[head];
+                kinds[head]     = null;
+                events[head]    = null;
+                head = (head + 1) % kinds.length;
+                count--;
+                delivering = true;
+                notFull.signalAll();
+            }finally{
+                lock.unlock();
+            }
+            RuntimeException thrown = null;
+            try{
+                dispatch(kind, event);
+            }catch(RuntimeException e){
+                // a failing listener must not stop the delivery of the next events
+                thrown = e;
+            }finally{
+                lock.lock();
+                try{
+                    if(thrown != null){
+                        if(failure == null) failure = thrown;
+                        else failure.addSuppressed(thrown);
+                    }
+                    delivering = false;
+                    notFull.signalAll();
+                }finally{
+                    lock.unlock();
+                }
+            }
+        }
+    }
+    private void dispatch(Kind kind, EventObject event){
+        switch(kind){
+            case GAME_STARTED:      listener.onGameStarted((GameEvent) event); break;
+            case GAME_ENDED:        listener.onGameEnded((GameEvent) event); break;
+            case ROUND_STARTED:     listener.onRoundStarted((RoundEvent) event); break;
+            case ROUND_ENDED:       listener.onRoundEnded((RoundEvent) event); break;
+            case TURN_STARTED:      listener.onTurnStarted((TurnEvent) event); break;
+            case TURN_ENDED:        listener.onTurnEnded((TurnEvent) event); break;
+            case NO_ACTION:         listener.onNoAction((SkipEvent) event); break;
+            case INVALID_PIECE:     listener.onInvalidPiece((SkipEvent) event); break;
+            case INVALID_POSITION:  listener.onInvalidPosition((SkipEvent) event); break;
+            case TIMEOUT:           listener.onTimeout((SkipEvent) event); break;
+            case EXCEPTION:         listener.onException((SkipEvent) event); break;
+        }
+    }
+    
+    public void onGameStarted(GameEvent ge){ offer(Kind.GAME_STARTED, ge); }
+    public void onGameEnded(GameEvent ge){ offer(Kind.GAME_ENDED, ge); }
+    public void onRoundStarted(RoundEvent re){ offer(Kind.ROUND_STARTED, re); }
+    public void onRoundEnded(RoundEvent re){ offer(Kind.ROUND_ENDED, re); }
+    public void onTurnStarted(TurnEvent te){ offer(Kind.TURN_STARTED, te); }
+    public void onTurnEnded(TurnEvent te){ offer(Kind.TURN_ENDED, te); }
+    public void onNoAction(SkipEvent se){ offer(Kind.NO_ACTION, se); }
+    public void onInvalidPiece(SkipEvent se){ offer(Kind.INVALID_PIECE, se); }
+    public void onInvalidPosition(SkipEvent se){ offer(Kind.INVALID_POSITION, se); }
+    public void onTimeout(SkipEvent se){ offer(Kind.TIMEOUT, se); }
+    public void onException(SkipEvent se){ offer(Kind.EXCEPTION, se); }
+}
@@ -36,15 +36,21 @@ public class RoundEvent extends EventObject implements Serializable {
     private static final long serialVersionUID = 1234567L;
     public final Player startPlayer, opponent, winner;
     public final int round;
+    /** Whether the round ended before its end because its winner was already known: the scores are not final. */
+    public final boolean adjudicated;
 
     public RoundEvent(final Game game, final Player startPlayer, final Player opponent, final int round){
         this(game, startPlayer, opponent, round, GameEvent.NO_WINNER);
     }
     public RoundEvent(final Game game, final Player startPlayer, final Player opponent, final int round, final Player winner){
+        this(game, startPlayer, opponent, round, winner, false);
+    }
+    public RoundEvent(final Game game, final Player startPlayer, final Player opponent, final int round, final Player winner, final boolean adjudicated){
         super(game);
         this.startPlayer    = startPlayer;
         this.opponent       = opponent;
         this.round          = round;
         this.winner         = winner;
+        this.adjudicated    = adjudicated;
     }
 }
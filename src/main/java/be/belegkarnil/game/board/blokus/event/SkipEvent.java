@@ -29,21 +29,32 @@ import java.io.Serializable;
 import java.util.EventObject;
 /**
  * This class represents an event that is generated when a {@link Strategy} does
- * not play and return a null {@link Piece}.
+ * not play and return a null {@link Piece}. It also reports the CPU time and the bytes allocated by the
+ * strategy during the turn, and whether it is a runaway: a strategy that ignored the interruption at timeout,
+ * which is then quarantined (its next turns are skipped without calling it).
  *
  * @author Belegkarnil
  */
 public class SkipEvent extends EventObject implements Serializable {
     @Serial
     private static final long serialVersionUID = 1234567L;
+    public static final long NO_MEASURE = -1;
     public final Player player;
     public final Exception exception;
+    public final long cpuTime, allocatedBytes;
+    public final boolean runaway;
     public SkipEvent(final Game game, Player player){
         this(game,player,null);
     }
     public SkipEvent(final Game game, Player player,Exception exception){
+        this(game,player,exception,NO_MEASURE,NO_MEASURE,false);
+    }
+    public SkipEvent(final Game game, Player player,Exception exception, long cpuTime, long allocatedBytes, boolean runaway){
         super(game);
         this.player = player;
         this.exception = exception;
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
+        this.runaway = runaway;
     }
 }
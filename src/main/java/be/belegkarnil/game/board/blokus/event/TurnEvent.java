@@ -20,7 +20,7 @@
 package be.belegkarnil.game.board.blokus.event;
 
 import be.belegkarnil.game.board.blokus.Game;
-import be.belegkarnil.game.board.blokus.Piece;
+import be.belegkarnil.game.board.blokus.Move;
 import be.belegkarnil.game.board.blokus.Player;
 
 import java.io.Serial;
@@ -36,20 +36,35 @@ import java.util.EventObject;
 public class TurnEvent extends EventObject implements Serializable {
     @Serial
     private static final long serialVersionUID = 1234567L;
-    public static final Piece NO_ACTION = null;
+    public static final Move NO_ACTION = null;
+    public static final long NO_CLOCK = -1;
     public final Player current, opponent;
     public final int round, turn;
-    public final Piece action;
+    public final Move action;
+    /** The time left on the clocks of the players in nanoseconds, or {@link #NO_CLOCK} without time control. */
+    public final long clock, opponentClock;
+    /** The CPU time (in nanoseconds) and the bytes used by the strategy during the turn, or {@link SkipEvent#NO_MEASURE}. */
+    public final long cpuTime, allocatedBytes;
 
     public TurnEvent(final Game game, final Player current, final Player opponent, final int round, final int turn){
       this(game, current, opponent, round, turn, NO_ACTION);
     }
-    public TurnEvent(final Game game, final Player current, final Player opponent, final int round, final int turn, final Piece action){
+    public TurnEvent(final Game game, final Player current, final Player opponent, final int round, final int turn, final Move action){
+        this(game, current, opponent, round, turn, action, NO_CLOCK, NO_CLOCK);
+    }
+    public TurnEvent(final Game game, final Player current, final Player opponent, final int round, final int turn, final Move action, final long clock, final long opponentClock){
+        this(game, current, opponent, round, turn, action, clock, opponentClock, SkipEvent.NO_MEASURE, SkipEvent.NO_MEASURE);
+    }
+    public TurnEvent(final Game game, final Player current, final Player opponent, final int round, final int turn, final Move action, final long clock, final long opponentClock, final long cpuTime, final long allocatedBytes){
         super(game);
-        this.current    = current;
-        this.opponent   = opponent;
-        this.round      = round;
-        this.turn       = turn;
-        this.action     = action;
+        this.current        = current;
+        this.opponent       = opponent;
+        this.round          = round;
+        this.turn           = turn;
+        this.action         = action;
+        this.clock          = clock;
+        this.opponentClock  = opponentClock;
+        this.cpuTime        = cpuTime;
+        this.allocatedBytes = allocatedBytes;
     }
 }
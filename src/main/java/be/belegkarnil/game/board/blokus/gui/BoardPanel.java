@@ -21,6 +21,7 @@ package be.belegkarnil.game.board.blokus.gui;
 
 import be.belegkarnil.game.board.blokus.Board;
 import be.belegkarnil.game.board.blokus.Game;
+import be.belegkarnil.game.board.blokus.Move;
 import be.belegkarnil.game.board.blokus.Piece;
 import be.belegkarnil.game.board.blokus.Player;
 import be.belegkarnil.game.board.blokus.Point;
@@ -63,6 +64,7 @@ public class BoardPanel extends BlokusPanel implements MouseListener {
 	private Player hmi;
 	private final Object lock;
 	private Piece current;
+	private int shape, x, y;
 	private Color color;
 	
 	public BoardPanel(Board board){
@@ -135,6 +137,18 @@ public class BoardPanel extends BlokusPanel implements MouseListener {
 		}
 	}
 	
+	public void update(Move move){
+		move.forEachPosition((x, y) -> {
+			if(board.isInBounds(x, y)) {
+				cells[y][x].setBackground(getColorFor(board.getCellAt(y, x)));
+			}
+		});
+	}
+	
+	private Move preview(){
+		return Move.of(current, shape, x, y);
+	}
+	
 	private Color getColorFor(Board.Cell cell) {
 		switch (cell){
 			case FIRST_PLAYER: return FIRST_PLAYER;
@@ -180,7 +194,7 @@ public class BoardPanel extends BlokusPanel implements MouseListener {
 					hmi = null;
 				}
 				if(te.action != null){
-					update(te.action.getPositions());
+					update(te.action);
 				}
 			}
 		});
@@ -191,7 +205,7 @@ public class BoardPanel extends BlokusPanel implements MouseListener {
 		synchronized (lock){
 			if(hmi != null){
 				if(this.current != null){
-					update(current.getPositions());
+					update(preview());
 				}
 				if(name == null){
 					this.current = null;
@@ -201,7 +215,9 @@ public class BoardPanel extends BlokusPanel implements MouseListener {
 					for (Piece piece : pieces) {
 						if (piece.name().equals(name)) {
 							this.current = piece;
-							this.current.reset();
+							this.shape = 0;
+							this.x = 0;
+							this.y = 0;
 						}
 					}
 				}
@@ -214,22 +230,22 @@ public class BoardPanel extends BlokusPanel implements MouseListener {
 	public void mouseClicked(MouseEvent e) {
 		if(e.getButton() == MouseEvent.BUTTON1){
 			if(current == null) return;
-			if(!board.canPlace(current,this.hmi))return;
+			if(!board.canPlace(preview(),this.hmi))return;
 			synchronized (lock){
 				if(this.hmi != null)
-					((HMIStrategy)(this.hmi.getStrategy())).setAction(current);
+					((HMIStrategy)(this.hmi.getStrategy())).setAction(preview());
 			}
 		} else if (e.getButton() == MouseEvent.BUTTON3){
 			synchronized (lock){
 				if(current != null){
 					Point[] pos;
-					pos = current.getPositions();
+					pos = preview().getPositions();
 					update(pos);
 					
-					current.next();
+					shape = (shape + 1) % current.countShapes();
 					
-					pos = current.getPositions();
-					if(board.canPlace(current,hmi)) {
+					pos = preview().getPositions();
+					if(board.canPlace(preview(),hmi)) {
 						for (Point p : pos) {
 							cells[p.getY()][p.getX()].setBackground(color);
 							cells[p.getY()][p.getX()].repaint();
@@ -273,13 +289,14 @@ public class BoardPanel extends BlokusPanel implements MouseListener {
 			if(current != null) {
 				Point[] pos;
 				
-				pos = current.getPositions();
+				pos = preview().getPositions();
 				update(pos);
 				
-				current.move(enteredAt.getX(), enteredAt.getY());
+				x = enteredAt.getX();
+				y = enteredAt.getY();
 				
-				pos = current.getPositions();
-				if(board.canPlace(current,hmi)) {
+				pos = preview().getPositions();
+				if(board.canPlace(preview(),hmi)) {
 					for (Point p : pos) {
 						cells[p.getY()][p.getX()].setBackground(color);
 						cells[p.getY()][p.getX()].repaint();
@@ -20,8 +20,7 @@
 package be.belegkarnil.game.board.blokus.gui;
 
 import be.belegkarnil.game.board.blokus.Game;
-import be.belegkarnil.game.board.blokus.Piece;
-import be.belegkarnil.game.board.blokus.Point;
+import be.belegkarnil.game.board.blokus.Move;
 import be.belegkarnil.game.board.blokus.event.GameEvent;
 import be.belegkarnil.game.board.blokus.event.GameListener;
 import be.belegkarnil.game.board.blokus.event.RoundEvent;
@@ -29,6 +28,8 @@ import be.belegkarnil.game.board.blokus.event.SkipEvent;
 import be.belegkarnil.game.board.blokus.event.TurnEvent;
 
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
@@ -37,8 +38,13 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 /**
- * This class is a GUI component of the Game. It is the log panel ({@link BlokusPanel}).
+ * This class is a GUI component of the Game. It is the log panel ({@link BlokusPanel}). An exported log can be
+ * replayed by the {@link be.belegkarnil.game.board.blokus.strategy.ReplayStrategy} or compiled in an opening book
+ * by the {@link be.belegkarnil.game.board.blokus.OpeningBookBuilder}.
  *
  * @author Belegkarnil
  */
@@ -76,7 +82,13 @@ public class LogPanel extends BlokusPanel implements ActionListener, GameListene
 	
 	@Override
 	public void actionPerformed(ActionEvent e) {
-		System.out.println("TODO actionPerformed@"+getClass().getSimpleName());
+		final JFileChooser chooser = new JFileChooser();
+		if(chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+		try {
+			Files.writeString(chooser.getSelectedFile().toPath(), content.getText(), StandardCharsets.UTF_8);
+		} catch (IOException ex) {
+			JOptionPane.showMessageDialog(this, "Cannot export the log: "+ex.getMessage(), "Export error", JOptionPane.ERROR_MESSAGE);
+		}
 	}
 	
 	@Override
@@ -111,6 +123,7 @@ public class LogPanel extends BlokusPanel implements ActionListener, GameListene
 			content.append("\nWinner is "+re.winner.getName()+"\n");
 			content.append("Player1 score is "+re.startPlayer.countScore()+"\n");
 			content.append("Player2 score is "+re.opponent.countScore()+"\n");
+			if(re.adjudicated) content.append("Round adjudicated\n");
 		}else{
 			content.append("\nNo winner\n");
 		}
@@ -124,9 +137,8 @@ public class LogPanel extends BlokusPanel implements ActionListener, GameListene
 	@Override
 	public void onTurnEnded(TurnEvent te) {
 		if(te.action != null){
-			final Piece action	= te.action;
-			final Point init		= action.getPositions()[0];
-			content.append("Action="+action.name()+", x="+init.getX()+", y="+init.getY()+", shape="+action.getShape()+"\n");
+			final Move action	= te.action;
+			content.append("Action="+action.getPiece().name()+", x="+action.getX()+", y="+action.getY()+", shape="+action.getShape()+"\n");
 		}else{
 			content.append("Action=none\n");
 		}
@@ -20,6 +20,7 @@
 package be.belegkarnil.game.board.blokus.gui;
 
 import be.belegkarnil.game.board.blokus.Game;
+import be.belegkarnil.game.board.blokus.TimeControl;
 import be.belegkarnil.game.board.blokus.event.GameAdapter;
 import be.belegkarnil.game.board.blokus.event.TurnEvent;
 
@@ -29,9 +30,11 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
 /**
- * This class is a GUI component of the Game. It is the timeout panel ({@link BlokusPanel}).
+ * This class is a GUI component of the Game. It is the timeout panel ({@link BlokusPanel}). With a
+ * {@link TimeControl}, it shows the time left on the clock of the current player instead.
  *
  * @author Belegkarnil
  */
@@ -88,8 +91,14 @@ public class TimePanel extends BlokusPanel{
 						repaint();
 					}
 				};
+				final TimeControl control = ((Game) te.getSource()).getTimeControl();
 				synchronized (lock) {
-					remaining = delay;
+					if(te.clock == TurnEvent.NO_CLOCK){
+						remaining = delay;
+					}else{
+						delay		= (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(control.getBudget()));
+						remaining	= (int) TimeUnit.NANOSECONDS.toSeconds(te.clock);
+					}
 				}
 				timer = new Timer();
 				timer.scheduleAtFixedRate(task, 1000, 1000);
@@ -0,0 +1,316 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus.strategy;
+
+import be.belegkarnil.game.board.blokus.AnytimeStrategy;
+import be.belegkarnil.game.board.blokus.Board;
+import be.belegkarnil.game.board.blokus.Move;
+import be.belegkarnil.game.board.blokus.Piece;
+import be.belegkarnil.game.board.blokus.PlacementTable;
+import be.belegkarnil.game.board.blokus.Strategy;
+import be.belegkarnil.game.board.blokus.event.GameListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class represents a deterministic {@link Strategy} that searches with a negamax with alpha-beta pruning,
+ * deepened iteratively until the deadline. The positions are stored in a transposition table of fixed size, keyed
+ * by the Zobrist hash of the {@link Board} and the side to move, whose entries are written without lock (each key is
+ * stored xored with its data, so that a torn entry is never trusted). The moves are ordered by the move of the
+ * table, then the two killer moves of the ply, then the history of the cutoffs and the size of the piece.
+ * <p>
+ * A position is evaluated for the player to move by the difference of the remaining scores (see
+ * {@link be.belegkarnil.game.board.blokus.Player#countScore()}), plus its mobility, measured as the difference
+ * of the numbers of anchors, as counting the legal moves of both players would cost more than the search of the node.
+ * A player without legal move passes, and the position is final when none of them has one. The skips of the players
+ * are not known and not searched. The number of nodes searched per second is given by {@link #getNodesPerSecond()}.
+ *
+ * @author Belegkarnil
+ */
+public class AlphaBetaStrategy implements AnytimeStrategy {
+	public static final int DEFAULT_TABLE_BITS = 18;// 2^18 entries of 16 bytes
+	private static final int MAX_PLY = 64;
+	private static final int TILE_WEIGHT = 16;// per tile of the score, the unit being one anchor
+	private static final int WIN = 8192;
+	private static final int INFINITY = Short.MAX_VALUE;
+	private static final int EXACT = 0, LOWER = 1, UPPER = 2;// bounds of the stored scores
+	private static final long EXHAUSTIVE = 1L << 58;// stored score searched without reaching the horizon
+	private static final int TABLE_MOVE = Integer.MAX_VALUE, KILLER = Integer.MAX_VALUE - 2;// ordering scores
+	private static final int TILE_ORDER = 256;// ordering score per tile of the piece
+	private static final long NO_DEADLINE = TimeUnit.SECONDS.toNanos(1);// budget of a turn without deadline
+	
+	private final long[] table;// per entry, the key xored with the data, then the data
+	private final int tableMask;
+	private final int[][] moves, orders, killers;
+	private int[] history;
+	private Board board;
+	private long deadline, nodes, totalNodes, elapsed;
+	private boolean aborted, horizon;
+	
+	public AlphaBetaStrategy(){
+		this(DEFAULT_TABLE_BITS);
+	}
+	/**
+	 * The transposition table has 2^tableBits entries.
+	 */
+	public AlphaBetaStrategy(int tableBits){
+		if(tableBits < 1 || tableBits > 30) throw new IllegalArgumentException("tableBits must be between 1 and 30");
+		this.table		= new long[2 << tableBits];
+		this.tableMask	= (1 << tableBits) - 1;
+		this.moves		= new int[MAX_PLY + 1][];
+		this.orders		= new int[MAX_PLY + 1][];
+		this.killers	= new int[MAX_PLY + 1][2];
+	}
+	
+	@Override
+	public GameListener register() {
+		return null;
+	}
+	
+	@Override
+	public GameListener unregister() {
+		return null;
+	}
+	
+	@Override
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+		return play(pieces, board, type, opponent, System.nanoTime() + NO_DEADLINE);
+	}
+	
+	@Override
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent, long deadline, Consumer<Move> publisher) {
+		final long start = System.nanoTime();
+		final int mask = Piece.maskOf(pieces), opponentMask = Piece.maskOf(opponent);
+		final Board.Cell other = opponentOf(type);
+		this.board		= new Board(board);
+		this.deadline	= deadline - Math.min(TimeUnit.MILLISECONDS.toNanos(5), (deadline - start) / 10);
+		this.nodes		= 0;
+		this.aborted	= false;
+		final int entries = countEntries(board.getPlacementTable());
+		if(history == null || history.length != entries) history = new int[entries];
+		else Arrays.fill(history, 0);
+		for(int[] killer:killers) killer[0] = killer[1] = Move.NO_MOVE;
+		
+		final int count = generate(0, type, mask);
+		if(count <= 1){
+			elapsed = System.nanoTime() - start;
+			return count == 0 ? null : Move.of(moves[0][0]);
+		}
+		final int[] root = Arrays.copyOf(moves[0], count);
+		order(root, count, orders[0], 0, Move.NO_MOVE);
+		int best = root[0];
+		publisher.accept(Move.of(best));
+		for(int depth=1; depth<=MAX_PLY && !aborted; depth++){
+			horizon = false;
+			int alpha = -INFINITY, found = Move.NO_MOVE, score;
+			for(int i=0; i<count; i++){
+				this.board.apply(root[i], type);
+				score = -search(depth - 1, -INFINITY, -alpha, 1, other, opponentMask, mask & ~(1 << Move.pieceOf(root[i])));
+				this.board.undo();
+				if(aborted) break;
+				if(score > alpha){
+					alpha = score;
+					found = root[i];
+				}
+			}
+			// The previous best move is searched first: a move found before the abort is at least as good
+			if(found != Move.NO_MOVE) best = found;
+			if(aborted) break;
+			publisher.accept(Move.of(best));
+			moveToFront(root, count, best);
+			if(!horizon) break;// the whole tree has been searched
+		}
+		elapsed = System.nanoTime() - start;
+		totalNodes += nodes;
+		return Move.of(best);
+	}
+	
+	/**
+	 * Returns the number of nodes searched since the creation of this strategy.
+	 */
+	public long countNodes(){
+		return totalNodes;
+	}
+	/**
+	 * Returns the number of nodes searched per second during the last move.
+	 */
+	public double getNodesPerSecond(){
+		return elapsed == 0 ? 0.0 : nodes * 1e9 / elapsed;
+	}
+	
+	private int search(int depth, int alpha, int beta, int ply, Board.Cell type, int pieces, int opponentPieces){
+		// A node costs microseconds (its moves are generated and ordered): the clock is read at each one
+		nodes++;
+		if(System.nanoTime() - deadline >= 0L || Thread.currentThread().isInterrupted()) aborted = true;
+		if(aborted) return 0;
+		final Board.Cell other = opponentOf(type);
+		if(depth == 0 || ply == MAX_PLY){
+			horizon = true;
+			return evaluate(type, pieces, opponentPieces);
+		}
+		final long hash = board.hash(type);
+		final int slot = ((int) hash & tableMask) << 1;
+		final long data = table[slot + 1];
+		int tableMove = Move.NO_MOVE;
+		if((table[slot] ^ data) == hash){
+			tableMove = (int) data;
+			if(depthOf(data) >= depth){
+				final int score = scoreOf(data);
+				// A score searched up to the horizon does not tell that the whole tree has been searched
+				final boolean cut;
+				switch(boundOf(data)){
+					case EXACT: cut = true; break;
+					case LOWER: alpha = Math.max(alpha, score); cut = alpha >= beta; break;
+					case UPPER: beta = Math.min(beta, score); cut = alpha >= beta; break;
+					default: cut = false;
+				}
+				if(cut){
+					if(!isExhaustive(data)) horizon = true;
+					return score;
+				}
+			}
+		}
+		final int count = generate(ply, type, pieces);
+		if(count == 0){
+			if(!board.hasLegalMove(other, opponentPieces)) return evaluateEnd(pieces, opponentPieces);
+			return -search(depth - 1, -beta, -alpha, ply + 1, other, opponentPieces, pieces);// pass
+		}
+		final int[] buffer = moves[ply], order = orders[ply];
+		order(buffer, count, order, ply, tableMove);
+		final boolean reached = horizon;
+		horizon = false;
+		final int start = alpha;
+		int best = -INFINITY, bestMove = Move.NO_MOVE, score, move;
+		for(int i=0; i<count; i++){
+			move = next(buffer, order, i, count);
+			board.apply(move, type);
+			score = -search(depth - 1, -beta, -alpha, ply + 1, other, opponentPieces, pieces & ~(1 << Move.pieceOf(move)));
+			board.undo();
+			if(aborted) return 0;
+			if(score > best){
+				best = score;
+				bestMove = move;
+				if(score > alpha){
+					alpha = score;
+					if(alpha >= beta){
+						if(killers[ply][0] != move){
+							killers[ply][1] = killers[ply][0];
+							killers[ply][0] = move;
+						}
+						history[entryOf(move)] += depth * depth;
+						break;
+					}
+				}
+			}
+		}
+		final int bound = best <= start ? UPPER : best >= beta ? LOWER : EXACT;
+		final long stored = (bestMove & 0xFFFFFFFFL) | (best & 0xFFFFL) << 32 | (long) depth << 48 | (long) bound << 56
+			| (horizon ? 0L : EXHAUSTIVE);
+		horizon |= reached;
+		table[slot]		= hash ^ stored;
+		table[slot + 1]	= stored;
+		return best;
+	}
+	
+	private int evaluate(Board.Cell type, int pieces, int opponentPieces){
+		return (Piece.countTiles(opponentPieces) - Piece.countTiles(pieces)) * TILE_WEIGHT
+			+ board.countAnchors(type) - board.countAnchors(opponentOf(type));
+	}
+	private static int evaluateEnd(int pieces, int opponentPieces){
+		final int difference = Piece.countTiles(opponentPieces) - Piece.countTiles(pieces);
+		return difference * TILE_WEIGHT + Integer.signum(difference) * WIN;
+	}
+	
+	/**
+	 * Fills the buffer of the ply with the legal moves and returns their number.
+	 */
+	private int generate(int ply, Board.Cell type, int pieces){
+		if(moves[ply] == null) moves[ply] = new int[1024];
+		int count = board.legalMoves(type, pieces, moves[ply]);
+		if(count > moves[ply].length){
+			moves[ply] = new int[Integer.highestOneBit(count) << 1];
+			count = board.legalMoves(type, pieces, moves[ply]);
+		}
+		if(orders[ply] == null || orders[ply].length < moves[ply].length) orders[ply] = new int[moves[ply].length];
+		return count;
+	}
+	private void order(int[] buffer, int count, int[] order, int ply, int tableMove){
+		final PlacementTable placements = board.getPlacementTable();
+		int move;
+		for(int i=0; i<count; i++){
+			move = buffer[i];
+			if(move == tableMove) order[i] = TABLE_MOVE;
+			else if(move == killers[ply][0]) order[i] = KILLER;
+			else if(move == killers[ply][1]) order[i] = KILLER - 1;
+			else order[i] = history[entryOf(move)] + placements.countTiles(Move.pieceOf(move)) * TILE_ORDER;
+		}
+	}
+	/**
+	 * Swaps the best remaining move to the index i and returns it (a selection sort, as cutoffs often come early).
+	 */
+	private static int next(int[] buffer, int[] order, int i, int count){
+		int best = i;
+		for(int j=i+1; j<count; j++){
+			if(order[j] > order[best]) best = j;
+		}
+		final int move = buffer[best], score = order[best];
+		buffer[best]	= buffer[i];
+		order[best]		= order[i];
+		buffer[i]		= move;
+		order[i]		= score;
+		return move;
+	}
+	private static void moveToFront(int[] moves, int count, int move){
+		for(int i=0; i<count; i++){
+			if(moves[i] == move){
+				System.arraycopy(moves, 0, moves, 1, i);
+				moves[0] = move;
+				return;
+			}
+		}
+	}
+	
+	private int entryOf(int move){
+		return board.getPlacementTable().entry(Move.pieceOf(move), Move.shapeOf(move), Move.xOf(move), Move.yOf(move));
+	}
+	private static int countEntries(PlacementTable placements){
+		int shapes = 0;
+		for(int piece=0; piece<Piece.values().length; piece++) shapes += placements.countShapes(piece);
+		return shapes * placements.getSize() * placements.getSize();
+	}
+	private static Board.Cell opponentOf(Board.Cell type){
+		return type == Board.Cell.FIRST_PLAYER ? Board.Cell.SECOND_PLAYER : Board.Cell.FIRST_PLAYER;
+	}
+	private static int scoreOf(long data){
+		return (short) (data >>> 32);
+	}
+	private static int depthOf(long data){
+		return (int) (data >>> 48) & 0xFF;
+	}
+	private static int boundOf(long data){
+		return (int) (data >>> 56) & 0x3;
+	}
+	private static boolean isExhaustive(long data){
+		return (data & EXHAUSTIVE) != 0L;
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus.strategy;
+
+import be.belegkarnil.game.board.blokus.AnytimeStrategy;
+import be.belegkarnil.game.board.blokus.Board;
+import be.belegkarnil.game.board.blokus.Move;
+import be.belegkarnil.game.board.blokus.Piece;
+import be.belegkarnil.game.board.blokus.PlacementTable;
+import be.belegkarnil.game.board.blokus.Strategy;
+import be.belegkarnil.game.board.blokus.event.GameListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class represents a {@link Strategy} that solves the end of the rounds exactly and delegates to an inner
+ * strategy before. When both players have few legal moves left, the tree of the remaining moves is searched to the
+ * end of the round (a player without legal move passes) for the best final difference of the scores (see
+ * {@link be.belegkarnil.game.board.blokus.Player#countScore()}), with an alpha-beta search whose results are
+ * memoized by position: the Zobrist hash of the {@link Board} with the side to move, which also covers the remaining
+ * pieces of both players. The memo is kept from one move to the next, as the positions of a round recur, and
+ * cleared when the strategy is registered or unregistered: the key does not cover the skips nor the rules of a
+ * game, so that the scores of another game could be wrong.
+ * If the solve exceeds its node budget or half of the time left, the inner strategy plays with the rest of it.
+ * The skips of the players are not known and not searched.
+ *
+ * @author Belegkarnil
+ */
+public class EndgameStrategy implements AnytimeStrategy {
+	public static final int DEFAULT_MAX_MOVES = 64;// legal moves of both players to try a solve
+	public static final int DEFAULT_NODE_LIMIT = 1 << 21;
+	public static final int DEFAULT_MEMO_BITS = 20;// 2^20 entries of 16 bytes
+	private static final int MAX_PLY = 128;// every ply places a piece, or passes before a placement of the opponent
+	private static final int EXACT = 0, LOWER = 1, UPPER = 2;// bounds of the memoized scores
+	private static final int INFINITY = 1024;// more than any score difference
+	
+	private final Strategy inner;
+	private final int maxMoves, nodeLimit;
+	private final long[] memo;// per entry, the key, then the data
+	private final int memoMask;
+	private final int[][] moves;
+	private Board board;
+	private long deadline;
+	private int nodes;
+	private boolean aborted;
+	
+	public EndgameStrategy(){
+		this(new AlphaBetaStrategy());
+	}
+	public EndgameStrategy(Strategy inner){
+		this(inner, DEFAULT_MAX_MOVES, DEFAULT_NODE_LIMIT, DEFAULT_MEMO_BITS);
+	}
+	/**
+	 * A solve is tried when both players have at most maxMoves legal moves in total, and gives up after nodeLimit
+	 * nodes. The memo has 2^memoBits entries.
+	 */
+	public EndgameStrategy(Strategy inner, int maxMoves, int nodeLimit, int memoBits){
+		if(memoBits < 1 || memoBits > 30) throw new IllegalArgumentException("memoBits must be between 1 and 30");
+		this.inner		= inner;
+		this.maxMoves	= maxMoves;
+		this.nodeLimit	= nodeLimit;
+		this.memo		= new long[2 << memoBits];
+		this.memoMask	= (1 << memoBits) - 1;
+		this.moves		= new int[MAX_PLY + 1][];
+	}
+	
+	@Override
+	public GameListener register() {
+		Arrays.fill(memo, 0L);
+		return inner.register();
+	}
+	
+	@Override
+	public GameListener unregister() {
+		Arrays.fill(memo, 0L);
+		return inner.unregister();
+	}
+	
+	@Override
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+		final Move move = solve(pieces, board, type, opponent, System.nanoTime() + TimeUnit.DAYS.toNanos(1));
+		return move != null ? move : inner.play(pieces, board, type, opponent);
+	}
+	
+	@Override
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent, long deadline, Consumer<Move> publisher) {
+		final Move move = solve(pieces, board, type, opponent, System.nanoTime() + (deadline - System.nanoTime()) / 2);
+		if(move != null) return move;
+		if(inner instanceof AnytimeStrategy) return ((AnytimeStrategy) inner).play(pieces, board, type, opponent, deadline, publisher);
+		return inner.play(pieces, board, type, opponent, deadline);
+	}
+	
+	/**
+	 * Returns the move with the best final score difference, or null when the position is not solved: too many moves,
+	 * no legal move (the inner strategy skips), or too many nodes or no time left.
+	 */
+	private Move solve(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent, long deadline){
+		final int mask = Piece.maskOf(pieces), opponentMask = Piece.maskOf(opponent);
+		final Board.Cell other = opponentOf(type);
+		this.board = new Board(board);
+		final int count = generate(0, type, mask);
+		if(count == 0 || count + this.board.legalMoves(other, opponentMask, (int[]) null) > maxMoves) return null;
+		this.deadline	= deadline;
+		this.nodes		= 0;
+		this.aborted	= false;
+		int alpha = -INFINITY, best = Move.NO_MOVE, score;
+		for(int i=0; i<count; i++){
+			final int move = moves[0][i];
+			this.board.apply(move, type);
+			score = -search(other, opponentMask, mask & ~(1 << Move.pieceOf(move)), -INFINITY, -alpha, 1);
+			this.board.undo();
+			if(aborted) return null;
+			if(score > alpha){
+				alpha	= score;
+				best	= move;
+			}
+		}
+		return Move.of(best);
+	}
+	
+	/**
+	 * Returns the final score difference for the player to move (its opponent's score minus its own).
+	 */
+	private int search(Board.Cell type, int pieces, int opponentPieces, int alpha, int beta, int ply){
+		if(++nodes > nodeLimit || System.nanoTime() - deadline >= 0L || Thread.currentThread().isInterrupted()) aborted = true;
+		if(aborted) return 0;
+		final Board.Cell other = opponentOf(type);
+		final long key = board.hash(type);
+		final int slot = ((int) key & memoMask) << 1;
+		int memoMove = Move.NO_MOVE;
+		if(memo[slot] == key){
+			final long data = memo[slot + 1];
+			final int score = (short) (data >>> 32);
+			memoMove = (int) data;
+			switch((int) (data >>> 48)){
+				case EXACT: return score;
+				case LOWER: alpha = Math.max(alpha, score); break;
+				case UPPER: beta = Math.min(beta, score); break;
+			}
+			if(alpha >= beta) return score;
+		}
+		final int count = ply < MAX_PLY ? generate(ply, type, pieces) : 0;
+		if(count == 0){
+			if(ply >= MAX_PLY || !board.hasLegalMove(other, opponentPieces)) return Piece.countTiles(opponentPieces) - Piece.countTiles(pieces);
+			return -search(other, opponentPieces, pieces, -beta, -alpha, ply + 1);// pass
+		}
+		final int[] buffer = moves[ply];
+		if(memoMove != Move.NO_MOVE){
+			for(int i=1; i<count; i++){
+				if(buffer[i] == memoMove){
+					buffer[i] = buffer[0];
+					buffer[0] = memoMove;
+					break;
+				}
+			}
+		}
+		final int start = alpha;
+		int best = -INFINITY, bestMove = Move.NO_MOVE, score, move;
+		for(int i=0; i<count; i++){
+			move = buffer[i];
+			board.apply(move, type);
+			score = -search(other, opponentPieces, pieces & ~(1 << Move.pieceOf(move)), -beta, -alpha, ply + 1);
+			board.undo();
+			if(aborted) return 0;
+			if(score > best){
+				best		= score;
+				bestMove	= move;
+				if(score > alpha) alpha = score;
+				if(alpha >= beta) break;
+			}
+		}
+		final int bound = best <= start ? UPPER : best >= beta ? LOWER : EXACT;
+		memo[slot]		= key;
+		memo[slot + 1]	= (bestMove & 0xFFFFFFFFL) | (best & 0xFFFFL) << 32 | (long) bound << 48;
+		return best;
+	}
+	
+	/**
+	 * Fills the buffer of the ply with the legal moves, the largest pieces first, and returns their number.
+	 */
+	private int generate(int ply, Board.Cell type, int pieces){
+		if(moves[ply] == null) moves[ply] = new int[256];
+		int count = board.legalMoves(type, pieces, moves[ply]);
+		if(count > moves[ply].length){
+			moves[ply] = new int[Integer.highestOneBit(count) << 1];
+			count = board.legalMoves(type, pieces, moves[ply]);
+		}
+		final int[] buffer = moves[ply];
+		final PlacementTable table = board.getPlacementTable();
+		// insertion sort by size, as the buffer is short in the endgame
+		for(int i=1; i<count; i++){
+			final int move = buffer[i], tiles = table.countTiles(Move.pieceOf(move));
+			int j = i - 1;
+			while(j >= 0 && table.countTiles(Move.pieceOf(buffer[j])) < tiles){
+				buffer[j + 1] = buffer[j];
+				j--;
+			}
+			buffer[j + 1] = move;
+		}
+		return count;
+	}
+	private static Board.Cell opponentOf(Board.Cell type){
+		return type == Board.Cell.FIRST_PLAYER ? Board.Cell.SECOND_PLAYER : Board.Cell.FIRST_PLAYER;
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus.strategy;
+
+import be.belegkarnil.game.board.blokus.Board;
+import be.belegkarnil.game.board.blokus.Move;
+import be.belegkarnil.game.board.blokus.Piece;
+import be.belegkarnil.game.board.blokus.Strategy;
+import be.belegkarnil.game.board.blokus.event.GameListener;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * This class represents a fast {@link Strategy} that plays the legal move with the best immediate gain: the tiles
+ * it places, the corners (anchors) it gains and the corners of the opponent it blocks, each move being applied and
+ * undone on a private copy of the {@link Board}. The evaluation of a move allocates nothing, and equal moves are
+ * chosen at random (reservoir sampling), so that two greedy strategies do not always play the same game.
+ * A move costs a copy of the board and takes microseconds, e.g. to be the sparring partner of large benchmarks.
+ *
+ * @author Belegkarnil
+ */
+public class GreedyStrategy implements Strategy {
+	public static final int TILE_WEIGHT = 4, CORNER_WEIGHT = 1, BLOCK_WEIGHT = 1;
+	
+	private final IntConsumer evaluator;
+	private Board board;
+	private Board.Cell type, opponent;
+	private int anchors, opponentAnchors;
+	private int best, bestScore, ties;
+	
+	public GreedyStrategy(){
+		this.evaluator = this::evaluate;
+	}
+	
+	@Override
+	public GameListener register() {
+		return null;
+	}
+	
+	@Override
+	public GameListener unregister() {
+		return null;
+	}
+	
+	@Override
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+		this.board				= new Board(board);
+		this.type				= type;
+		this.opponent			= type == Board.Cell.FIRST_PLAYER ? Board.Cell.SECOND_PLAYER : Board.Cell.FIRST_PLAYER;
+		this.anchors			= board.countAnchors(this.type);
+		this.opponentAnchors	= board.countAnchors(this.opponent);
+		this.best				= Move.NO_MOVE;
+		this.bestScore			= Integer.MIN_VALUE;
+		this.ties				= 0;
+		this.board.legalMoves(type, Piece.maskOf(pieces), evaluator);
+		this.board = null;
+		return Move.of(best);
+	}
+	
+	private void evaluate(int move){
+		board.apply(move, type);
+		final int score = board.getPlacementTable().countTiles(Move.pieceOf(move)) * TILE_WEIGHT
+			+ (board.countAnchors(type) - anchors) * CORNER_WEIGHT
+			+ (opponentAnchors - board.countAnchors(opponent)) * BLOCK_WEIGHT;
+		board.undo();
+		if(score > bestScore){
+			bestScore	= score;
+			best		= move;
+			ties		= 1;
+		}else if(score == bestScore && ThreadLocalRandom.current().nextInt(++ties) == 0){
+			best		= move;
+		}
+	}
+}
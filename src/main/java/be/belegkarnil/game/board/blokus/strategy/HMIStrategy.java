@@ -20,6 +20,7 @@
 package be.belegkarnil.game.board.blokus.strategy;
 
 import be.belegkarnil.game.board.blokus.Board;
+import be.belegkarnil.game.board.blokus.Move;
 import be.belegkarnil.game.board.blokus.Piece;
 import be.belegkarnil.game.board.blokus.Point;
 import be.belegkarnil.game.board.blokus.Strategy;
@@ -29,13 +30,13 @@ import java.util.List;
 
 /**
  * This class is a special a {@link Strategy} class that is recognized by the GUI. This class allow
- * a human player to select a {@link Piece} and a position {@link Point}.
+ * a human player to select a {@link Piece} and a position {@link Point}, given as a {@link Move}.
  *
  * @author Belegkarnil
  */
 public class HMIStrategy implements Strategy {
 	private final Object lock;
-	private Piece action;
+	private Move action;
 	private boolean undefined;
 	public HMIStrategy(){
 		lock			= new Object();
@@ -43,7 +44,7 @@ public class HMIStrategy implements Strategy {
 		action		= null;
 	}
 	
-	public void setAction(Piece action){
+	public void setAction(Move action){
 		synchronized (lock) {
 			this.action = action;
 			undefined	= false;
@@ -61,8 +62,8 @@ public class HMIStrategy implements Strategy {
 	}
 	
 	@Override
-	public Piece action(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
-		Piece piece = null;
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+		Move piece = null;
 		boolean undefined = true;
 		while(undefined) {
 			synchronized (lock) {
@@ -0,0 +1,316 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus.strategy;
+
+import be.belegkarnil.game.board.blokus.AnytimeStrategy;
+import be.belegkarnil.game.board.blokus.Board;
+import be.belegkarnil.game.board.blokus.GameSimulator;
+import be.belegkarnil.game.board.blokus.Move;
+import be.belegkarnil.game.board.blokus.Piece;
+import be.belegkarnil.game.board.blokus.PlacementTable;
+import be.belegkarnil.game.board.blokus.Strategy;
+import be.belegkarnil.game.board.blokus.event.GameListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * This class represents a {@link Strategy} that searches with a Monte-Carlo Tree Search (UCT): each iteration
+ * descends the tree along the best upper confidence bound, expands the reached leaf with the legal moves (the
+ * largest pieces first) and plays the rest of the round at random in a {@link GameSimulator}, whose winner is
+ * propagated back. Several threads search the same tree until the deadline: the visit and win counters of the
+ * nodes are updated atomically without lock, and a thread descending through a node adds a virtual loss to it, so
+ * that the other threads explore elsewhere until its playout is back. The most visited move of the root is played,
+ * and published while searching.
+ * <p>
+ * The strategy does not know the skips of the players: the search assumes that nobody has skipped yet.
+ *
+ * @author Belegkarnil
+ */
+public class MCTSStrategy implements AnytimeStrategy {
+	public static final double DEFAULT_EXPLORATION = Math.sqrt(2.0);
+	public static final String THREADS_PROPERTY = "blokus.mcts.threads";// threads of the default constructor
+	private static final int VIRTUAL_LOSS = 3;
+	private static final int BUFFER = 2048;// legal moves generated without allocation
+	private static final int PUBLISH_INTERVAL = 64;// playouts of the calling thread between two publications
+	private static final long MARGIN = TimeUnit.MILLISECONDS.toNanos(5);// returns before the deadline
+	private static final long NO_DEADLINE = TimeUnit.SECONDS.toNanos(1);// budget of a turn without deadline
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+	private static final AtomicIntegerFieldUpdater<Node> VISITS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+	private static final AtomicIntegerFieldUpdater<Node> WINS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "wins");
+	private static final AtomicReferenceFieldUpdater<Node,Node[]> CHILDREN = AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+	private static final Node[] TERMINAL = new Node[0];
+	
+	private final int threads;
+	private final double exploration;
+	private final AtomicLong playouts;
+	private ExecutorService helpers;
+	
+	/**
+	 * Searches with the number of threads of the {@link #THREADS_PROPERTY} system property (e.g.
+	 * {@code -Dblokus.mcts.threads=4} for the GUI), as the strategies are loaded through this constructor. By
+	 * default, it searches on the calling thread only, as the batch runner and the tournament already play one
+	 * game per core.
+	 */
+	public MCTSStrategy(){
+		this(Integer.getInteger(THREADS_PROPERTY, 1), DEFAULT_EXPLORATION);
+	}
+	/**
+	 * The threads are the calling one and threads - 1 helpers, started at the first move and stopped at the end
+	 * of the game (see {@link #unregister()}).
+	 */
+	public MCTSStrategy(int threads, double exploration){
+		if(threads < 1) throw new IllegalArgumentException("threads must be positive");
+		this.threads		= threads;
+		this.exploration	= exploration;
+		this.playouts		= new AtomicLong();
+	}
+	
+	/**
+	 * This class is a node of the tree: the move leading to it, its counters (the wins are the ones of the
+	 * player of the move) and its children, set once when expanded.
+	 */
+	private static final class Node {
+		private final int move;
+		private volatile int visits, wins;
+		private volatile Node[] children;
+		
+		private Node(int move){
+			this.move = move;
+		}
+	}
+	
+	/**
+	 * This class is the state shared by the threads searching for a move.
+	 */
+	private static final class Search {
+		private final Board position;
+		private final Board.Cell type;
+		private final int pieces, opponentPieces;
+		private final long deadline;
+		private final Node root;
+		private volatile boolean stopped;
+		
+		private Search(Board position, Board.Cell type, int pieces, int opponentPieces, long deadline){
+			this.position		= position;
+			this.type			= type;
+			this.pieces			= pieces;
+			this.opponentPieces	= opponentPieces;
+			this.deadline		= deadline;
+			this.root			= new Node(Move.NO_MOVE);
+		}
+		private boolean isOver(){
+			return stopped || System.nanoTime() - deadline >= 0L || Thread.currentThread().isInterrupted();
+		}
+	}
+	
+	@Override
+	public GameListener register() {
+		return null;
+	}
+	
+	@Override
+	public GameListener unregister() {
+		releaseHelpers();
+		return null;
+	}
+	
+	@Override
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+		return play(pieces, board, type, opponent, System.nanoTime() + NO_DEADLINE);
+	}
+	
+	@Override
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent, long deadline, Consumer<Move> publisher) {
+		final long now = System.nanoTime();
+		final Search search = new Search(board, type, Piece.maskOf(pieces), Piece.maskOf(opponent), deadline - Math.min(MARGIN, (deadline - now) / 10));
+		final SplittableRandom random = new SplittableRandom();
+		final GameSimulator simulator = new GameSimulator();
+		simulator.reset(board, search.type == Board.Cell.FIRST_PLAYER ? search.pieces : search.opponentPieces,
+			search.type == Board.Cell.FIRST_PLAYER ? search.opponentPieces : search.pieces, 0, 0);
+		final Node[] moves = expand(search.root, simulator, type, new int[BUFFER]);
+		if(moves.length <= 1) return moves.length == 0 ? null : Move.of(moves[0].move);
+		publisher.accept(Move.of(moves[0].move));
+		
+		final Future<?>[] futures = new Future<?>[threads - 1];
+		for(int i=0; i<futures.length; i++){
+			final SplittableRandom split = random.split();
+			futures[i] = getHelpers().submit(() -> search(search, split, null));
+		}
+		try{
+			search(search, random, publisher);
+		}finally{
+			search.stopped = true;
+			for(Future<?> future:futures){
+				try{
+					future.get();
+				}catch(Exception e){
+					// the move of the calling thread is still valid
+				}
+			}
+		}
+		return Move.of(mostVisited(search.root).move);
+	}
+	
+	/**
+	 * Returns the number of playouts since the creation of this strategy, e.g. to measure the playouts per second.
+	 */
+	public long countPlayouts(){
+		return playouts.get();
+	}
+	
+	private synchronized ExecutorService getHelpers(){
+		if(helpers == null){
+			helpers = Executors.newFixedThreadPool(threads - 1, task -> {
+				final Thread thread = new Thread(task, "BelegBlokus-mcts-"+THREAD_COUNT.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return helpers;
+	}
+	private synchronized void releaseHelpers(){
+		if(helpers != null){
+			helpers.shutdownNow();
+			helpers = null;
+		}
+	}
+	
+	private void search(Search search, SplittableRandom random, Consumer<Move> publisher){
+		final GameSimulator simulator = new GameSimulator();
+		final GameSimulator.Policy policy = GameSimulator.fastRandom(random);
+		final Board.Cell opponent = search.type == Board.Cell.FIRST_PLAYER ? Board.Cell.SECOND_PLAYER : Board.Cell.FIRST_PLAYER;
+		final int first = search.type == Board.Cell.FIRST_PLAYER ? search.pieces : search.opponentPieces;
+		final int second = search.type == Board.Cell.FIRST_PLAYER ? search.opponentPieces : search.pieces;
+		final int[] buffer = new int[BUFFER];
+		Node[] path = new Node[64];
+		long count = 0;
+		while(!search.isOver()){
+			simulator.reset(search.position, first, second, 0, 0);
+			Node node = search.root;
+			Board.Cell type = search.type;
+			int depth = 0;
+			// Selection, then expansion of the reached leaf (unless the round has ended) and selection of one of its children
+			Node[] children;
+			while((children = node.children) != TERMINAL){
+				final boolean leaf = children == null;
+				if(leaf){
+					children = expand(node, simulator, type, buffer);
+					if(children == TERMINAL) break;
+				}
+				node = select(node, children);
+				if(depth == path.length) path = Arrays.copyOf(path, depth << 1);
+				path[depth++] = node;
+				simulator.playTurn(type, node.move);
+				type = type == search.type ? opponent : search.type;
+				if(leaf) break;
+			}
+			// Playout and backpropagation, the wins of a node being the ones of the player of its move
+			final Board.Cell winner = simulator.playRound(policy, policy, type);
+			VISITS.incrementAndGet(search.root);
+			for(int i=0; i<depth; i++){
+				VISITS.addAndGet(path[i], 1 - VIRTUAL_LOSS);
+				if(winner == ((i & 1) == 0 ? search.type : opponent)) WINS.incrementAndGet(path[i]);
+			}
+			count++;
+			if(publisher != null && count % PUBLISH_INTERVAL == 0) publisher.accept(Move.of(mostVisited(search.root).move));
+		}
+		playouts.addAndGet(count);
+	}
+	
+	/**
+	 * Sets the children of the node from the position of the simulator, or returns the ones set by another thread.
+	 */
+	private static Node[] expand(Node node, GameSimulator simulator, Board.Cell type, int[] buffer){
+		final Node[] children;
+		if(simulator.isOver()){
+			children = TERMINAL;
+		}else{
+			final Board board = simulator.getBoard();
+			final int pieces = simulator.getPieceMask(type);
+			int count = board.legalMoves(type, pieces, buffer);
+			if(count > buffer.length){
+				buffer = new int[count];
+				count = board.legalMoves(type, pieces, buffer);
+			}
+			if(count == 0){
+				children = new Node[]{ new Node(Move.NO_MOVE) };
+			}else{
+				// The largest pieces first, as unvisited children are tried in order
+				final PlacementTable table = board.getPlacementTable();
+				children = new Node[count];
+				int n = 0;
+				int largest = 0;
+				for(int mask=pieces; mask != 0; mask &= mask - 1){
+					largest = Math.max(largest, table.countTiles(Integer.numberOfTrailingZeros(mask)));
+				}
+				for(int tiles=largest; n < count; tiles--){
+					for(int i=0; i<count; i++){
+						if(table.countTiles(Move.pieceOf(buffer[i])) == tiles) children[n++] = new Node(buffer[i]);
+					}
+				}
+			}
+		}
+		if(CHILDREN.compareAndSet(node, null, children)) return children;
+		return node.children;
+	}
+	
+	/**
+	 * Returns the child with the best upper confidence bound (an unvisited one first) and adds a virtual loss to it.
+	 */
+	private Node select(Node parent, Node[] children){
+		final double log = Math.log(Math.max(1, parent.visits));
+		Node best = children[0];
+		double value, bestValue = Double.NEGATIVE_INFINITY;
+		int visits;
+		for(Node child:children){
+			visits = child.visits;
+			if(visits <= 0){
+				best = child;
+				break;
+			}
+			value = (double) child.wins / visits + exploration * Math.sqrt(log / visits);
+			if(value > bestValue){
+				bestValue = value;
+				best = child;
+			}
+		}
+		VISITS.addAndGet(best, VIRTUAL_LOSS);
+		return best;
+	}
+	
+	private static Node mostVisited(Node root){
+		Node best = root.children[0];
+		for(Node child:root.children){
+			if(child.visits > best.visits) best = child;
+		}
+		return best;
+	}
+}
@@ -20,6 +20,7 @@
 package be.belegkarnil.game.board.blokus.strategy;
 
 import be.belegkarnil.game.board.blokus.Board;
+import be.belegkarnil.game.board.blokus.Move;
 import be.belegkarnil.game.board.blokus.Piece;
 import be.belegkarnil.game.board.blokus.Strategy;
 import be.belegkarnil.game.board.blokus.event.GameEvent;
@@ -39,7 +40,7 @@ import java.util.List;
 /**
  * This class act as a TCP network client which is called by a remote a {@link Strategy}
  * through the {@link NetworkServerStrategy}. This strategy receives events from the remote
- * server and also use its internal {@link Strategy} to notify which {@link Piece} to play.
+ * server and also use its internal {@link Strategy} to notify which {@link Move} to play.
  * to play.
  *
  * @author Belegkarnil
@@ -130,7 +131,7 @@ public class NetworkClientStrategy extends Thread implements Strategy, GameListe
 		task = new Thread(){
 			@Override
 			public void run(){
-				Piece action = action(pieces,board,type,opponent);
+				Move action = play(pieces,board,type,opponent);
 				synchronized (lockStrategy){
 					try {
 						out.writeObject(action);
@@ -170,7 +171,7 @@ public class NetworkClientStrategy extends Thread implements Strategy, GameListe
 				// ensure that action response is sent even if the server skip
 				if(inStrategy){
 					try {
-						out.writeObject((Piece)null);
+						out.writeObject((Move)null);
 						out.flush();
 					} catch (IOException e) {
 						e.printStackTrace();
@@ -209,8 +210,8 @@ public class NetworkClientStrategy extends Thread implements Strategy, GameListe
 	}
 	
 	@Override
-	public Piece action(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
-		return strategy.action(pieces,board,type,opponent);
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+		return strategy.play(pieces,board,type,opponent);
 	}
 	
 	@Override
@@ -20,6 +20,7 @@
 package be.belegkarnil.game.board.blokus.strategy;
 
 import be.belegkarnil.game.board.blokus.Board;
+import be.belegkarnil.game.board.blokus.Move;
 import be.belegkarnil.game.board.blokus.Piece;
 import be.belegkarnil.game.board.blokus.Strategy;
 import be.belegkarnil.game.board.blokus.event.GameEvent;
@@ -39,7 +40,7 @@ import java.util.List;
 /**
  * This class act as a TCP network server which calls a remote a {@link Strategy}
  * through the {@link NetworkClientStrategy}. This strategy send events to the remote
- * {@link Strategy} and also ask the remote {@link Strategy} which  {@link Piece}
+ * {@link Strategy} and also ask the remote {@link Strategy} which  {@link Move}
  * to play.
  *
  * @author Belegkarnil
@@ -72,7 +73,7 @@ public class NetworkServerStrategy implements Strategy, GameListener {
 	}
 	
 	@Override
-	public Piece action(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
 		// TODO react to timeout
 		try {
 			out.writeUTF("action");
@@ -86,7 +87,7 @@ public class NetworkServerStrategy implements Strategy, GameListener {
 			synchronized (lock) {
 				hasToReadStrategy = true;
 			}
-			final Piece action = (Piece) in.readObject();
+			final Move action = (Move) in.readObject();
 			synchronized (lock) {
 				hasToReadStrategy = false;
 			}
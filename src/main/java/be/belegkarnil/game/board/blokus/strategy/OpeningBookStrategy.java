@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2024 Belegkarnil
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ *  associated documentation files (the “Software”), to deal in the Software without restriction,
+ *  including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ *  and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do
+ *  so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ *  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ *  WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package be.belegkarnil.game.board.blokus.strategy;
+
+import be.belegkarnil.game.board.blokus.AnytimeStrategy;
+import be.belegkarnil.game.board.blokus.Board;
+import be.belegkarnil.game.board.blokus.Move;
+import be.belegkarnil.game.board.blokus.OpeningBook;
+import be.belegkarnil.game.board.blokus.Piece;
+import be.belegkarnil.game.board.blokus.Strategy;
+import be.belegkarnil.game.board.blokus.event.GameListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class represents a {@link Strategy} that plays the moves of an {@link OpeningBook} and delegates to an
+ * inner strategy once out of book (or when the move of the book is not legal, e.g. after a hash collision).
+ * By default, the book is the {@link #DEFAULT_BOOK} file, if any, and the inner strategy an {@link AlphaBetaStrategy}.
+ *
+ * @author Belegkarnil
+ */
+public class OpeningBookStrategy implements AnytimeStrategy {
+	public static final String DEFAULT_BOOK = "blokus.book";
+	public static final int DEFAULT_MIN_GAMES = 2;
+	
+	private final OpeningBook book;
+	private final Strategy inner;
+	private final int minGames;
+	
+	public OpeningBookStrategy(){
+		this(openDefaultBook(), new AlphaBetaStrategy(), DEFAULT_MIN_GAMES);
+	}
+	/**
+	 * The book may be null (the inner strategy always plays), and its moves are played if they were played in at least
+	 * minGames games.
+	 */
+	public OpeningBookStrategy(OpeningBook book, Strategy inner, int minGames){
+		this.book		= book;
+		this.inner		= inner;
+		this.minGames	= minGames;
+	}
+	private static OpeningBook openDefaultBook(){
+		final File file = new File(DEFAULT_BOOK);
+		if(!file.isFile()) return null;
+		try{
+			return OpeningBook.open(file);
+		}catch(IOException e){
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public GameListener register() {
+		return inner.register();
+	}
+	
+	@Override
+	public GameListener unregister() {
+		return inner.unregister();
+	}
+	
+	@Override
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+		final Move move = lookup(pieces, board, type);
+		return move != null ? move : inner.play(pieces, board, type, opponent);
+	}
+	
+	@Override
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent, long deadline, Consumer<Move> publisher) {
+		final Move move = lookup(pieces, board, type);
+		if(move != null) return move;
+		if(inner instanceof AnytimeStrategy) return ((AnytimeStrategy) inner).play(pieces, board, type, opponent, deadline, publisher);
+		return inner.play(pieces, board, type, opponent, deadline);
+	}
+	
+	/**
+	 * Returns the move of the book for the position, or null when out of book.
+	 */
+	private Move lookup(List<Piece> pieces, Board board, Board.Cell type){
+		if(book == null || book.getSize() != board.getSize()) return null;
+		final int move = book.bestMove(board.hash(type), minGames);
+		if(move == Move.NO_MOVE || Move.pieceOf(move) >= Piece.values().length) return null;
+		if(! pieces.contains(Piece.of(Move.pieceOf(move))) || !board.canPlace(move, type)) return null;
+		return Move.of(move);
+	}
+}
@@ -20,23 +20,19 @@
 package be.belegkarnil.game.board.blokus.strategy;
 
 import be.belegkarnil.game.board.blokus.Board;
+import be.belegkarnil.game.board.blokus.Move;
 import be.belegkarnil.game.board.blokus.Piece;
-import be.belegkarnil.game.board.blokus.Point;
 import be.belegkarnil.game.board.blokus.Strategy;
 import be.belegkarnil.game.board.blokus.event.GameListener;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * This class represents a {@link Strategy} that randomly chooses an initial position for
- * all possibles positions. Then it randomly chooses a piece from all possible piece and
- * try to play. If the piece cannot be place, it tries another random piece. If no piece can
- * be placed, it tries another random position. If no piece can be placed, the strategy skip
- * with a null {@link Piece}.
+ * This class represents a {@link Strategy} that randomly chooses one of the legal moves
+ * given by the move generator of the {@link Board}, each with the same probability. If no piece
+ * can be placed, the strategy skip with a null {@link Move}.
  *
  * @author Belegkarnil
  */
@@ -52,63 +48,15 @@ public class RandomStrategy implements Strategy {
 	}
 	
 	@Override
-	public Piece action(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
-		try {
-			Set<Point> uniqueCanPlace = new HashSet<Point>();
-			for (Point p : board.getStartingPositions()) {
-				uniqueCanPlace.add(new Point(p.getX()+1,p.getY()));
-				uniqueCanPlace.add(new Point(p.getX()-1,p.getY()));
-				uniqueCanPlace.add(new Point(p.getX(),p.getY()+1));
-				uniqueCanPlace.add(new Point(p.getX(),p.getY()-1));
-			}
-			for (int i = 0; i < board.getSize(); i++) {
-				for (int j = 0; j < board.getSize(); j++) {
-					if (board.getCellAt(i, j) == type) {
-						Point corner;
-						corner = new Point(i - 1, j);
-						if (board.isInBounds(corner) && board.inCellEmpty(corner)) uniqueCanPlace.add(corner);
-						corner = new Point(i, j - 1);
-						if (board.isInBounds(corner) && board.inCellEmpty(corner)) uniqueCanPlace.add(corner);
-						corner = new Point(i + 1, j);
-						if (board.isInBounds(corner) && board.inCellEmpty(corner)) uniqueCanPlace.add(corner);
-						corner = new Point(i, j + 1);
-						if (board.isInBounds(corner) && board.inCellEmpty(corner)) uniqueCanPlace.add(corner);
-					}
-				}
-			}
-			
-			List<Point> initPos = new LinkedList<Point>();
-			initPos.addAll(uniqueCanPlace);
-			
-			List<Piece> copy = new LinkedList<Piece>();
-			copy.addAll(pieces);
-			// random pieces and initPos
-			Collections.shuffle(copy);
-			Collections.shuffle(initPos);
-			
-			// For each piece, bruteforce at each pos
-			for (Point pos : initPos) {
-				for (Piece p : copy) {
-					p.reset();
-					for (int shape=0; shape < p.countShapes(); shape++) {
-						for (Point corner : p.getCorners()) {
-							final int dx = pos.getX() - corner.getX();
-							final int dy = pos.getY() - corner.getY();
-							p.translate(dx, dy);
-							if (board.canPlace(p, type)) {
-								return p;
-							} else {
-								p.translate(-dx, -dy);
-							}
-						}
-						p.next();
-					}
-				}
-			}
-		}catch(Exception e){
-			e.printStackTrace();
-			throw e;
-		}
-		return null;
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+		final Random random = ThreadLocalRandom.current();
+		final int[] chosen = new int[]{ Move.NO_MOVE };
+		final int[] count = new int[]{ 0 };
+		// Reservoir sampling: the k-th legal move replaces the chosen one with a probability of 1/k
+		board.legalMoves(type, Piece.maskOf(pieces), move -> {
+			count[0]++;
+			if(random.nextInt(count[0]) == 0) chosen[0] = move;
+		});
+		return Move.of(chosen[0]);
 	}
 }
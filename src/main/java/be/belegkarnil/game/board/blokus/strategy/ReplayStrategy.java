@@ -20,6 +20,7 @@
 package be.belegkarnil.game.board.blokus.strategy;
 
 import be.belegkarnil.game.board.blokus.Board;
+import be.belegkarnil.game.board.blokus.Move;
 import be.belegkarnil.game.board.blokus.Piece;
 import be.belegkarnil.game.board.blokus.Strategy;
 import be.belegkarnil.game.board.blokus.event.GameListener;
@@ -67,7 +68,7 @@ public class ReplayStrategy implements Strategy {
 	}
 	
 	@Override
-	public Piece action(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
+	public Move play(List<Piece> pieces, Board board, Board.Cell type, List<Piece> opponent) {
 		if(!actions.isEmpty()){
 			String current = actions.removeFirst();
 			if(current.equals("none")) return null;
@@ -82,11 +83,7 @@ public class ReplayStrategy implements Strategy {
 				else current = param;
 			}
 			
-			Piece action = Piece.valueOf(current);
-			action.translate(x,y);
-			while(action.getShape() != shape) action.next();
-			
-			return action;
+			return Move.of(Piece.valueOf(current), shape, x, y);
 		}
 		return null;
 	}